@@ -0,0 +1,199 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package router;
+
+import annotations.web.PathVariable;
+import annotations.web.RequestBody;
+import annotations.web.RequestParam;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.ServerExchange;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the compiled binding plan of a route with the reflective path it replaced, which re-read the
+ * parameters and their annotations and called {@link Method#invoke} on every request. Both bind one path
+ * variable and two query parameters of {@code GET /users/{id}?page=2&sort=name} and call the controller.
+ * <p>
+ * Run with {@code mvn -P benchmarks test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBindingBenchmark {
+    private static final String QUERY = "page=2&sort=name";
+
+    public static class UserController {
+        public String getUser(@PathVariable("id") long id, @RequestParam("page") int page, @RequestParam("sort") String sort) {
+            return sort;
+        }
+    }
+
+    private Router.RouteMatch match;
+    private RouteBinding binding;
+    private Object controller;
+    private Method method;
+
+    @Setup
+    public void setup() throws Exception {
+        controller = new UserController();
+        method = UserController.class.getMethod("getUser", long.class, int.class, String.class);
+
+        Router.registerRoute("GET", "/users/{id}", controller, method);
+        Router.freeze();
+
+        match = Router.match("GET", "/users/42");
+        binding = match.getRoute().getBinding();
+    }
+
+    @Benchmark
+    public Object compiled() throws Exception {
+        RequestContext context = new RequestContext(new BenchmarkExchange(), match);
+        return binding.invoke(binding.resolveArguments(context));
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        ServerExchange exchange = new BenchmarkExchange();
+
+        // The per-request steps of Router.executeRoute and RouteExecutor.handle before binding plans
+        method.setAccessible(true);
+        Parameter[] parameters = method.getParameters();
+        Object[] args = new Object[parameters.length];
+
+        Map<String, String> queryParams = parseQueryParams(exchange.getRequestQuery());
+        String body = new BufferedReader(new InputStreamReader(exchange.getRequestBody())).lines().collect(Collectors.joining("\n"));
+
+        for(int i = 0 ; i < parameters.length ; i++) {
+            Parameter param = parameters[i];
+
+            if(param.isAnnotationPresent(RequestParam.class)) {
+                args[i] = convert(queryParams.get(param.getAnnotation(RequestParam.class).value()), param.getType());
+            }
+            if(param.isAnnotationPresent(PathVariable.class)) {
+                args[i] = convert(match.getPathVariable(param.getAnnotation(PathVariable.class).value()), param.getType());
+            }
+            if(param.isAnnotationPresent(RequestBody.class)) {
+                args[i] = new ObjectMapper().readValue(body, param.getType());
+            }
+        }
+
+        return method.invoke(controller, args);
+    }
+
+    private static Map<String, String> parseQueryParams(String query) {
+        Map<String, String> queryParams = new HashMap<>();
+
+        if(query != null) {
+            for(String pair : query.split("&")) {
+                String[] keyVal = pair.split("=");
+                if(keyVal.length == 2) {
+                    queryParams.put(URLDecoder.decode(keyVal[0], StandardCharsets.UTF_8), URLDecoder.decode(keyVal[1], StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        return queryParams;
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        if(value == null) return null;
+        if(type == String.class) return value;
+        if(type == int.class || type == Integer.class) return Integer.parseInt(value);
+        if(type == long.class || type == Long.class) return Long.parseLong(value);
+
+        return value;
+    }
+
+    /**
+     * Request side of {@code GET /users/42?page=2&sort=name}; nothing is written to it.
+     */
+    private static class BenchmarkExchange implements ServerExchange {
+        private final InputStream body = new ByteArrayInputStream(new byte[0]);
+
+        @Override
+        public String getRequestMethod() {
+            return "GET";
+        }
+
+        @Override
+        public String getRequestPath() {
+            return "/users/42";
+        }
+
+        @Override
+        public String getRequestQuery() {
+            return QUERY;
+        }
+
+        @Override
+        public String getRequestHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return body;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public void setResponseHeader(String name, String value) {
+        }
+
+        @Override
+        public void addResponseHeader(String name, String value) {
+        }
+
+        @Override
+        public void sendResponseHeaders(int status, long length) {
+        }
+
+        @Override
+        public int getResponseStatus() {
+            return -1;
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package admission;
+
+import server.ServerConfig;
+
+import java.util.logging.Logger;
+
+/**
+ * Admission control in front of route execution: a global in-flight limit configured with the
+ * {@code server.admission.*} keys, combined with the optional per-route {@code @ConcurrencyLimit}.
+ */
+public class AdmissionControl {
+    private static final Logger logger = Logger.getLogger(AdmissionControl.class.getName());
+
+    private static final Permit UNLIMITED = new Permit(null, null);
+
+    private static volatile ConcurrencyLimiter global;
+
+    /**
+     * Applies the global limit of a (re)loaded configuration. Requests admitted by a previous limiter give
+     * their permit back to it, so the limit can change while requests are in flight.
+     */
+    public static void configure(ServerConfig config) {
+        int limit = config.getAdmissionMaxConcurrent();
+        ConcurrencyLimiter current = global;
+
+        if(limit <= 0) {
+            global = null;
+            return;
+        }
+
+        if(current != null && current.hasSameSettings(limit, config.getAdmissionQueueSize(), config.getAdmissionMaxWait())) {
+            return;
+        }
+
+        global = new ConcurrencyLimiter("global", limit, config.getAdmissionQueueSize(), config.getAdmissionMaxWait());
+        logger.info("Admission control: " + limit + " concurrent requests, " + config.getAdmissionQueueSize() + " queued");
+    }
+
+    /**
+     * Admits a request, taking a permit from the route limiter first and then from the global one,
+     * so a request waiting for its route never holds a global slot.
+     *
+     * @param route the limiter of the matched route, may be null
+     * @return the permit to close once the request completes, or null if the request must be shed
+     */
+    public static Permit admit(ConcurrencyLimiter route) {
+        ConcurrencyLimiter global = AdmissionControl.global;
+
+        if(route == null && global == null) {
+            return UNLIMITED;
+        }
+
+        boolean routeAcquired = false;
+        try {
+            if(route != null) {
+                if(!route.acquire()) {
+                    return null;
+                }
+                routeAcquired = true;
+            }
+
+            if(global != null && !global.acquire()) {
+                if(routeAcquired) {
+                    route.release();
+                }
+                return null;
+            }
+        }
+        catch (InterruptedException e) {
+            if(routeAcquired) {
+                route.release();
+            }
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        return new Permit(route, global);
+    }
+
+    /**
+     * Permits held by an admitted request.
+     */
+    public static class Permit implements AutoCloseable {
+        private final ConcurrencyLimiter route;
+        private final ConcurrencyLimiter global;
+
+        private Permit(ConcurrencyLimiter route, ConcurrencyLimiter global) {
+            this.route = route;
+            this.global = global;
+        }
+
+        @Override
+        public void close() {
+            if(global != null) {
+                global.release();
+            }
+            if(route != null) {
+                route.release();
+            }
+        }
+    }
+}
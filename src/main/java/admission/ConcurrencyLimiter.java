@@ -0,0 +1,95 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package admission;
+
+import metrics.MetricsRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits concurrent executions to a fixed number of permits. Callers that find no free permit wait in a
+ * bounded queue for at most the configured deadline; when the queue is full they are turned away at once.
+ */
+public class ConcurrencyLimiter {
+    private final String scope;
+    private final int limit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder queueFull;
+    private final LongAdder timedOut;
+
+    /**
+     * @param scope         label of the published metrics, "global" or the route key
+     * @param limit         maximum number of concurrent executions
+     * @param queueSize     maximum number of callers waiting for a permit
+     * @param maxWaitMillis longest time a caller waits for a permit
+     */
+    public ConcurrencyLimiter(String scope, int limit, int queueSize, long maxWaitMillis) {
+        this.scope = scope;
+        this.limit = limit;
+        this.queueSize = Math.max(0, queueSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        this.permits = new Semaphore(limit, true);
+
+        String label = "{scope=\"" + scope + "\"";
+        this.queueFull = MetricsRegistry.counter("lightcore_admission_rejected_total" + label + ",reason=\"queue_full\"}");
+        this.timedOut = MetricsRegistry.counter("lightcore_admission_rejected_total" + label + ",reason=\"timeout\"}");
+
+        MetricsRegistry.gauge("lightcore_admission_limit" + label + "}", () -> this.limit);
+        MetricsRegistry.gauge("lightcore_admission_in_flight" + label + "}", () -> this.limit - permits.availablePermits());
+        MetricsRegistry.gauge("lightcore_admission_queue_depth" + label + "}", waiting::get);
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if none is free.
+     *
+     * @return true if a permit was taken and must be given back with {@link #release()}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean acquire() throws InterruptedException {
+        if(permits.tryAcquire()) {
+            return true;
+        }
+
+        if(waiting.incrementAndGet() > queueSize) {
+            waiting.decrementAndGet();
+            queueFull.increment();
+            return false;
+        }
+
+        try {
+            if(permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+
+            timedOut.increment();
+            return false;
+        }
+        finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    boolean hasSameSettings(int limit, int queueSize, long maxWaitMillis) {
+        return this.limit == limit && this.queueSize == Math.max(0, queueSize)
+                && this.maxWaitNanos == TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+    }
+}
@@ -0,0 +1,29 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package annotations.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the serialized response of a GET route. Entries are keyed on the request path plus the query
+ * parameters named in {@link #key()}, or the whole query string when no key is given.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+    /**
+     * @return seconds a cached response stays fresh
+     */
+    long ttl() default 60;
+
+    /**
+     * @return comma separated query parameter names that identify the response, e.g. "id,page"
+     */
+    String key() default "";
+}
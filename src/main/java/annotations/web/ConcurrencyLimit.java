@@ -0,0 +1,34 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package annotations.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caps how many requests of a route run at the same time. Extra requests wait in a bounded queue
+ * and are answered with {@code 503 Service Unavailable} when the queue is full or the wait times out.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConcurrencyLimit {
+    /**
+     * @return the maximum number of concurrent requests
+     */
+    int value();
+
+    /**
+     * @return how many requests may wait for a slot
+     */
+    int queueSize() default 64;
+
+    /**
+     * @return how long a request waits for a slot before it is rejected
+     */
+    long maxWaitMillis() default 1000;
+}
@@ -0,0 +1,40 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package annotations.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a single client may call a route. A client may spend up to {@link #permits()} requests
+ * at once and regains them evenly over {@link #period()}; requests over the limit get {@code 429 Too Many Requests}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RateLimit {
+    enum Key {
+        /** The client's IP address */
+        IP,
+        /** The value of {@link #header()}, falling back to the IP address when the header is missing */
+        HEADER
+    }
+
+    int permits();
+
+    long period() default 1;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    Key key() default Key.IP;
+
+    /**
+     * @return the request header identifying the client when {@code key = HEADER}, e.g. "X-Api-Key"
+     */
+    String header() default "";
+}
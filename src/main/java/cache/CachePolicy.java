@@ -0,0 +1,77 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package cache;
+
+import annotations.web.Cacheable;
+import metrics.MetricsRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caching rules of one {@code @Cacheable} route, resolved once when the route table is frozen,
+ * together with the route's hit, miss and eviction counters.
+ */
+public class CachePolicy {
+    private final String routeKey;
+    private final long ttlNanos;
+    private final String[] keyParams;
+
+    final LongAdder hits;
+    final LongAdder misses;
+    final LongAdder evictions;
+
+    public CachePolicy(String httpMethod, String pathPattern, Cacheable cacheable) {
+        this.routeKey = httpMethod + ":" + pathPattern;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, cacheable.ttl()));
+        this.keyParams = cacheable.key().isBlank() ? null : cacheable.key().trim().split("\\s*,\\s*");
+
+        String label = "{route=\"" + routeKey + "\"}";
+        this.hits = MetricsRegistry.counter("lightcore_cache_hits_total" + label);
+        this.misses = MetricsRegistry.counter("lightcore_cache_misses_total" + label);
+        this.evictions = MetricsRegistry.counter("lightcore_cache_evictions_total" + label);
+    }
+
+    /**
+     * Builds the cache key of a request.
+     *
+     * @param path       the decoded request path
+     * @param rawQuery   the raw query string, may be null
+     * @param queryParam lookup of decoded query parameters, used when the route names its key parameters
+     * @return the key identifying the response in the cache
+     */
+    public String keyFor(String path, String rawQuery, Function<String, String> queryParam) {
+        StringBuilder key = new StringBuilder(routeKey.length() + path.length() + 32)
+                .append(routeKey).append(' ').append(path);
+
+        if(keyParams == null) {
+            if(rawQuery != null && !rawQuery.isEmpty()) {
+                key.append('?').append(rawQuery);
+            }
+            return key.toString();
+        }
+
+        // Decoded values may contain '&' or '=', so parameters are separated by NUL
+        for(String name : keyParams) {
+            String value = queryParam.apply(name);
+            key.append('\0').append(name).append('=');
+            if(value != null) {
+                key.append(value);
+            }
+        }
+
+        return key.toString();
+    }
+
+    public long getTtlNanos() {
+        return ttlNanos;
+    }
+
+    public String getRouteKey() {
+        return routeKey;
+    }
+}
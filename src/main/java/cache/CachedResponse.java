@@ -0,0 +1,46 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package cache;
+
+/**
+ * A serialized response body held by the {@link ResponseCache}, with its strong ETag.
+ */
+public class CachedResponse {
+    // Rough per-entry bookkeeping cost (map node, key, this object) added to the body size
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final byte[] body;
+    private final String etag;
+    private final long expiresAt;
+    private final CachePolicy policy;
+
+    CachedResponse(byte[] body, String etag, long expiresAt, CachePolicy policy) {
+        this.body = body;
+        this.etag = etag;
+        this.expiresAt = expiresAt;
+        this.policy = policy;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    boolean isExpired(long now) {
+        return now - expiresAt >= 0;
+    }
+
+    CachePolicy getPolicy() {
+        return policy;
+    }
+
+    long weight(String key) {
+        return body.length + 2L * key.length() + ENTRY_OVERHEAD;
+    }
+}
@@ -0,0 +1,189 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package cache;
+
+import metrics.MetricsRegistry;
+import server.HTTPServerStarter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Process-wide store of serialized responses for {@code @Cacheable} routes. The store is bounded by
+ * {@code server.cache.maxBytes}, counting body bytes rather than entries, and evicts least recently used
+ * entries first. It is split into segments with their own lock so concurrent requests rarely contend.
+ */
+public class ResponseCache {
+    private static final int SEGMENT_COUNT = 16;
+
+    private static final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    static {
+        for(int i = 0 ; i < SEGMENT_COUNT ; i++) {
+            segments[i] = new Segment();
+        }
+
+        MetricsRegistry.gauge("lightcore_cache_bytes", ResponseCache::getSize);
+        MetricsRegistry.gauge("lightcore_cache_entries", ResponseCache::getEntryCount);
+    }
+
+    /**
+     * Returns the fresh entry stored under the key and records a hit or a miss for the route.
+     *
+     * @return the cached response, or null if absent or expired
+     */
+    public static CachedResponse get(CachePolicy policy, String key) {
+        CachedResponse response = segmentFor(key).get(key, System.nanoTime());
+
+        if(response != null) {
+            policy.hits.increment();
+        }
+        else {
+            policy.misses.increment();
+        }
+
+        return response;
+    }
+
+    /**
+     * Stores a serialized body, evicting older entries of the same segment as needed.
+     * Bodies too large to fit the segment are not cached.
+     *
+     * @return the stored entry, whose ETag can be sent with the response even if it was not cached
+     */
+    public static CachedResponse put(CachePolicy policy, String key, byte[] body) {
+        CachedResponse response = new CachedResponse(body, etag(body), System.nanoTime() + policy.getTtlNanos(), policy);
+        long segmentCapacity = HTTPServerStarter.getActiveConfig().getCacheMaxBytes() / SEGMENT_COUNT;
+
+        if(policy.getTtlNanos() > 0 && response.weight(key) <= segmentCapacity) {
+            segmentFor(key).put(key, response, segmentCapacity);
+        }
+
+        return response;
+    }
+
+    /**
+     * Drops every cached response.
+     */
+    public static void clear() {
+        for(Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Computes a strong ETag from the CRC32C and the length of the body.
+     */
+    public static String etag(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+
+    /**
+     * Derives the ETag of a content-coded variant, e.g. {@code "1a2b-40-gzip"} for the gzip body of {@code "1a2b-40"}.
+     */
+    public static String etag(String etag, String encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    /**
+     * Evaluates an {@code If-None-Match} header against the current ETag.
+     *
+     * @param ifNoneMatch the header value, may be null
+     * @param etag        the ETag of the current representation
+     * @return true if the client already holds the representation and should get 304
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if(ifNoneMatch == null) {
+            return false;
+        }
+
+        for(String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+
+            // If-None-Match uses the weak comparison, so a W/ prefix is ignored
+            if(tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+
+            if(tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long getSize() {
+        long size = 0;
+        for(Segment segment : segments) {
+            size += segment.getSize();
+        }
+        return size;
+    }
+
+    private static long getEntryCount() {
+        long count = 0;
+        for(Segment segment : segments) {
+            count += segment.getEntryCount();
+        }
+        return count;
+    }
+
+    private static Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    private static class Segment {
+        private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long size;
+
+        synchronized CachedResponse get(String key, long now) {
+            CachedResponse response = entries.get(key);
+
+            if(response != null && response.isExpired(now)) {
+                entries.remove(key);
+                size -= response.weight(key);
+                return null;
+            }
+
+            return response;
+        }
+
+        synchronized void put(String key, CachedResponse response, long capacity) {
+            CachedResponse previous = entries.put(key, response);
+            if(previous != null) {
+                size -= previous.weight(key);
+            }
+            size += response.weight(key);
+
+            Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+            while(size > capacity && iterator.hasNext()) {
+                Map.Entry<String, CachedResponse> eldest = iterator.next();
+                iterator.remove();
+                size -= eldest.getValue().weight(eldest.getKey());
+                eldest.getValue().getPolicy().evictions.increment();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            size = 0;
+        }
+
+        synchronized long getSize() {
+            return size;
+        }
+
+        synchronized int getEntryCount() {
+            return entries.size();
+        }
+    }
+}
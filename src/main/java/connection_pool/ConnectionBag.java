@@ -0,0 +1,148 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package connection_pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free holder of the pool's entries. A thread first looks at the entries it released itself, which
+ * are usually still free and never contended, then scans the shared list, claiming an entry with a
+ * compare-and-set. A thread that finds nothing waits for a releasing thread to hand an entry over.
+ */
+final class ConnectionBag {
+    private static final int THREAD_LIST_SIZE = 16;
+
+    private final CopyOnWriteArrayList<PoolEntry> shared = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<PoolEntry>> threadList = ThreadLocal.withInitial(ArrayList::new);
+    private final SynchronousQueue<PoolEntry> handoff = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * Claims one of the entries this thread released, most recent first.
+     */
+    PoolEntry pollLocal() {
+        List<PoolEntry> list = threadList.get();
+
+        for(int i = list.size() - 1 ; i >= 0 ; i--) {
+            PoolEntry entry = list.remove(i);
+            if(entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Claims any free entry. Before {@link #awaitHandoff}, callers scan again after registering with
+     * {@link #enterWaiting()} so a concurrent release is not missed between the scan and the wait.
+     */
+    PoolEntry pollShared() {
+        for(PoolEntry entry : shared) {
+            if(entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Waits for an entry released by another thread.
+     *
+     * @return the claimed entry, or null if none was handed over in time
+     */
+    PoolEntry awaitHandoff(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        do {
+            PoolEntry entry = handoff.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+            if(entry == null || entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                return entry;
+            }
+            timeoutNanos = deadline - System.nanoTime();
+        }
+        while(timeoutNanos > 0);
+
+        return null;
+    }
+
+    /**
+     * Returns an entry to the bag, handing it straight to a waiting thread if there is one.
+     */
+    void requite(PoolEntry entry) {
+        entry.setState(PoolEntry.NOT_IN_USE);
+
+        for(int i = 0 ; waiters.get() > 0 ; i++) {
+            if(entry.getState() != PoolEntry.NOT_IN_USE || handoff.offer(entry)) {
+                return;
+            }
+            // Give a waiter that is between its scan and its poll a chance to get there
+            if((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(10_000);
+            }
+            else {
+                Thread.yield();
+            }
+        }
+
+        List<PoolEntry> list = threadList.get();
+        if(list.size() < THREAD_LIST_SIZE) {
+            list.add(entry);
+        }
+    }
+
+    void add(PoolEntry entry) {
+        shared.add(entry);
+    }
+
+    /**
+     * Takes an entry out of the bag for good.
+     *
+     * @return false if it was already removed
+     */
+    boolean remove(PoolEntry entry) {
+        int state = entry.getState();
+        if(state == PoolEntry.REMOVED || !entry.compareAndSet(state, PoolEntry.REMOVED)) {
+            return false;
+        }
+
+        shared.remove(entry);
+        return true;
+    }
+
+    void enterWaiting() {
+        waiters.incrementAndGet();
+    }
+
+    void exitWaiting() {
+        waiters.decrementAndGet();
+    }
+
+    int getWaiters() {
+        return waiters.get();
+    }
+
+    int count(int state) {
+        int count = 0;
+        for(PoolEntry entry : shared) {
+            if(entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    List<PoolEntry> entries() {
+        return new ArrayList<>(shared);
+    }
+}
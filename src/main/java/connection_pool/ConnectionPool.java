@@ -0,0 +1,274 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package connection_pool;
+
+import database_config.DatabaseConfig;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC connection pool for the {@code jdbc} query engine, sized and tuned by the {@code db.pool.*} keys.
+ * Connections are opened on demand up to {@code db.pool.size}, checked with {@link Connection#isValid}
+ * when they were idle for a while, and replaced once older than {@code db.pool.maxLifetime}.
+ */
+public class ConnectionPool {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    // A connection used this recently is assumed alive and lent without a round trip to the server
+    private static final long VALIDATION_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    // Waiters re-check for free capacity at this interval, e.g. after a broken connection was discarded
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final ScheduledThreadPoolExecutor leakDetector = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "lightcore-db-pool-leak");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        leakDetector.setRemoveOnCancelPolicy(true);
+    }
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long timeoutNanos;
+    private final long maxLifetimeNanos;
+    private final long leakThreshold;
+
+    private final ConnectionBag bag = new ConnectionBag();
+    private final AtomicInteger total = new AtomicInteger();
+    private volatile boolean closed;
+
+    private final LatencyHistogram borrowLatency = MetricsRegistry.histogram("lightcore_db_pool_borrow_duration_seconds");
+    private final LongAdder timeouts = MetricsRegistry.counter("lightcore_db_pool_timeouts_total");
+    private final LongAdder leaks = MetricsRegistry.counter("lightcore_db_pool_leaks_total");
+    private final LongAdder created = MetricsRegistry.counter("lightcore_db_pool_connections_created_total");
+
+    public ConnectionPool(DatabaseConfig config) {
+        this.url = "jdbc:mysql://" + config.getHost() + ":" + config.getPort() + "/" + config.getDatabase();
+        this.username = config.getUsername();
+        this.password = config.getPassword();
+        this.maxSize = config.getPoolSize();
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getPoolTimeout());
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(config.getPoolMaxLifetime());
+        this.leakThreshold = config.getPoolLeakThreshold();
+
+        MetricsRegistry.gauge("lightcore_db_pool_active", () -> bag.count(PoolEntry.IN_USE));
+        MetricsRegistry.gauge("lightcore_db_pool_idle", () -> bag.count(PoolEntry.NOT_IN_USE));
+        MetricsRegistry.gauge("lightcore_db_pool_waiting", bag::getWaiters);
+        MetricsRegistry.gauge("lightcore_db_pool_total", total::get);
+        MetricsRegistry.gauge("lightcore_db_pool_max", () -> maxSize);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Borrows a connection, waiting up to {@code db.pool.timeout} milliseconds when all of them are in use.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @throws SQLTransientConnectionException if no connection became available in time
+     * @throws SQLException if a new connection could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if(closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        PoolEntry entry = borrow(start);
+
+        long now = System.nanoTime();
+        entry.lastAccess = now;
+        borrowLatency.record(now - start);
+
+        if(leakThreshold > 0) {
+            Exception borrowedAt = new Exception("Connection borrowed here");
+            entry.leakTask = leakDetector.schedule(() -> {
+                leaks.increment();
+                logger.log(Level.WARNING, "Connection held for more than " + leakThreshold + " ms, possible leak", borrowedAt);
+            }, leakThreshold, TimeUnit.MILLISECONDS);
+        }
+
+        return PooledConnection.wrap(this, entry);
+    }
+
+    private PoolEntry borrow(long start) throws SQLException {
+        PoolEntry entry = bag.pollLocal();
+        if(entry != null && isUsable(entry)) {
+            return entry;
+        }
+        if(entry != null) {
+            discard(entry);
+        }
+
+        long deadline = start + timeoutNanos;
+        try {
+            while(true) {
+                entry = bag.pollShared();
+                if(entry == null) {
+                    entry = tryCreate();
+                }
+                if(entry == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        timeouts.increment();
+                        throw new SQLTransientConnectionException("No connection available within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+                                + " ms (active " + bag.count(PoolEntry.IN_USE) + ", waiting " + bag.getWaiters() + ")");
+                    }
+                    entry = awaitEntry(Math.min(remaining, RECHECK_NANOS));
+                }
+
+                // Validation and creation happen outside the waiting window, so releasers do not spin on us meanwhile
+                if(entry != null) {
+                    if(isUsable(entry)) {
+                        return entry;
+                    }
+                    discard(entry);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    /**
+     * Registers as a waiter only for as long as it takes to receive an entry. The shared list is scanned
+     * again once registered, since a release that happened just before registering did not hand off.
+     */
+    private PoolEntry awaitEntry(long timeoutNanos) throws InterruptedException {
+        bag.enterWaiting();
+        try {
+            PoolEntry entry = bag.pollShared();
+            return entry != null ? entry : bag.awaitHandoff(timeoutNanos);
+        }
+        finally {
+            bag.exitWaiting();
+        }
+    }
+
+    /**
+     * Opens a new connection if the pool is below its size.
+     *
+     * @return the new entry, already in use, or null if the pool is full
+     */
+    private PoolEntry tryCreate() throws SQLException {
+        while(true) {
+            int current = total.get();
+            if(current >= maxSize) {
+                return null;
+            }
+            if(total.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        try {
+            PoolEntry entry = new PoolEntry(DriverManager.getConnection(url, username, password), PoolEntry.IN_USE);
+            bag.add(entry);
+            created.increment();
+            return entry;
+        }
+        catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PoolEntry entry) {
+        long now = System.nanoTime();
+
+        if(entry.broken || entry.getAgeNanos(now) > maxLifetimeNanos) {
+            return false;
+        }
+        if(now - entry.lastAccess < VALIDATION_IDLE_NANOS) {
+            return true;
+        }
+
+        try {
+            return entry.getConnection().isValid(VALIDATION_TIMEOUT_SECONDS);
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes a connection back from {@link PooledConnection#invoke}. An open transaction is rolled back so
+     * the next borrower starts clean.
+     */
+    void release(PoolEntry entry) {
+        if(entry.leakTask != null) {
+            entry.leakTask.cancel(false);
+            entry.leakTask = null;
+        }
+
+        Connection connection = entry.getConnection();
+        try {
+            if(!entry.broken && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+        catch (SQLException e) {
+            entry.broken = true;
+        }
+
+        long now = System.nanoTime();
+        if(closed || entry.broken || entry.getAgeNanos(now) > maxLifetimeNanos) {
+            discard(entry);
+            return;
+        }
+
+        entry.lastAccess = now;
+        bag.requite(entry);
+    }
+
+    private void discard(PoolEntry entry) {
+        if(!bag.remove(entry)) {
+            return;
+        }
+
+        total.decrementAndGet();
+        try {
+            entry.getConnection().close();
+        }
+        catch (SQLException e) {
+            logger.fine("Could not close a discarded connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the idle connections now and the borrowed ones as they are given back.
+     */
+    public void close() {
+        closed = true;
+
+        for(PoolEntry entry : bag.entries()) {
+            if(entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                discard(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package connection_pool;
+
+import java.sql.Connection;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A physical connection owned by the pool. Its state moves between {@link #NOT_IN_USE} and {@link #IN_USE}
+ * by compare-and-set, which is what lets threads borrow without a lock, and ends at {@link #REMOVED}.
+ */
+final class PoolEntry {
+    static final int NOT_IN_USE = 0;
+    static final int IN_USE = 1;
+    static final int REMOVED = -1;
+
+    private final AtomicInteger state;
+    private final Connection connection;
+    private final long createdAt = System.nanoTime();
+
+    volatile long lastAccess = createdAt;
+    volatile boolean broken;
+    volatile ScheduledFuture<?> leakTask;
+
+    PoolEntry(Connection connection, int initialState) {
+        this.connection = connection;
+        this.state = new AtomicInteger(initialState);
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    boolean compareAndSet(int expected, int update) {
+        return state.compareAndSet(expected, update);
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    void setState(int update) {
+        state.set(update);
+    }
+
+    long getAgeNanos(long now) {
+        return now - createdAt;
+    }
+}
@@ -0,0 +1,80 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package connection_pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The {@link Connection} handed out by the pool. Calls go to the physical connection, except
+ * {@code close()}, which gives it back to the pool. A connection error marks it broken so the pool
+ * discards it instead of lending it again.
+ */
+final class PooledConnection implements InvocationHandler {
+    // SQLState class 08 is "connection exception"
+    private static final String CONNECTION_ERROR_STATE = "08";
+
+    private final ConnectionPool pool;
+    private final PoolEntry entry;
+    private volatile boolean closed;
+
+    private PooledConnection(ConnectionPool pool, PoolEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+    }
+
+    static Connection wrap(ConnectionPool pool, PoolEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnection(pool, entry)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if(!closed) {
+                    closed = true;
+                    pool.release(entry);
+                }
+                return null;
+            case "isClosed":
+                return closed;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + entry.getConnection() + (closed ? ", closed]" : "]");
+            default:
+                break;
+        }
+
+        if(closed) {
+            throw new SQLException("Connection is closed");
+        }
+
+        try {
+            return method.invoke(entry.getConnection(), args);
+        }
+        catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if(state != null && state.startsWith(CONNECTION_ERROR_STATE)) {
+                    entry.broken = true;
+                }
+            }
+            throw cause;
+        }
+    }
+}
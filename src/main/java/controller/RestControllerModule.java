@@ -23,7 +23,8 @@ public class RestControllerModule {
 
     /**
      * Registers all the routes from classes annotated with @RestController in the given package.
-     * Scans the package for controllers and registers GET and POST routes based on annotations.
+     * Scans the package for controllers and registers GET, POST, PUT and DELETE routes based on annotations,
+     * then freezes the route table. Paths may contain "{name}" placeholders bound with @PathVariable.
      *
      * @param basePackage The base package to scan for controllers.
      * @throws Exception If there is an error during the reflection or registration process.
@@ -72,5 +73,7 @@ public class RestControllerModule {
                 }
             }
         }
+
+        Router.freeze();
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package converter;
+
+/**
+ * Turns the text of a path variable or query parameter into a controller argument. A converter
+ * rejects malformed input by throwing any RuntimeException, which is answered with 400.
+ *
+ * @param <T> the converted type
+ */
+@FunctionalInterface
+public interface Converter<T> {
+    T convert(String value);
+}
@@ -0,0 +1,273 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package converter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Converters from request text to controller parameter types. Routes look their converters up once,
+ * when the route table is frozen, so converters for application types must be registered before the
+ * server starts:
+ * <pre>
+ * ConverterRegistry.register(Money.class, Money::parse);
+ * </pre>
+ * Besides the built-in and registered types, enums (matched ignoring case) and any type with a static
+ * {@code valueOf}, {@code parse}, {@code of} or {@code fromString} factory taking a String or
+ * CharSequence, or a String constructor, are converted. Arrays, {@code List}, {@code Set} and
+ * {@code Collection} of those types are filled from repeated or comma-separated values.
+ */
+public class ConverterRegistry {
+    private static final String[] FACTORY_METHODS = { "valueOf", "parse", "of", "fromString" };
+
+    private static final Map<Class<?>, Converter<?>> converters = new ConcurrentHashMap<>();
+
+    /**
+     * Converts every value of a multi-valued parameter into one array or collection.
+     */
+    @FunctionalInterface
+    public interface MultiValueConverter {
+        Object convert(List<String> values);
+    }
+
+    static {
+        register(String.class, value -> value);
+        register(int.class, Integer::valueOf);
+        register(Integer.class, Integer::valueOf);
+        register(long.class, Long::valueOf);
+        register(Long.class, Long::valueOf);
+        register(short.class, Short::valueOf);
+        register(Short.class, Short::valueOf);
+        register(byte.class, Byte::valueOf);
+        register(Byte.class, Byte::valueOf);
+        register(double.class, Double::valueOf);
+        register(Double.class, Double::valueOf);
+        register(float.class, Float::valueOf);
+        register(Float.class, Float::valueOf);
+        register(boolean.class, Boolean::valueOf);
+        register(Boolean.class, Boolean::valueOf);
+        register(char.class, ConverterRegistry::toCharacter);
+        register(Character.class, ConverterRegistry::toCharacter);
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+        register(UUID.class, UUID::fromString);
+        register(LocalDate.class, LocalDate::parse);
+        register(LocalDateTime.class, LocalDateTime::parse);
+        register(LocalTime.class, LocalTime::parse);
+        register(Instant.class, Instant::parse);
+        register(OffsetDateTime.class, OffsetDateTime::parse);
+        register(ZonedDateTime.class, ZonedDateTime::parse);
+        register(Duration.class, Duration::parse);
+    }
+
+    /**
+     * Registers the converter for a type, replacing any built-in one. Must be called before the
+     * routes using the type are registered.
+     */
+    public static <T> void register(Class<T> type, Converter<? extends T> converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * @return the converter for a single-valued parameter of the given type
+     * @throws IllegalArgumentException if the type cannot be converted from text
+     */
+    public static Converter<?> converterFor(Class<?> type) {
+        Converter<?> converter = converters.get(type);
+        if(converter != null) {
+            return converter;
+        }
+
+        if(type.isEnum()) {
+            converter = enumConverter(type);
+        }
+        else {
+            converter = factoryConverter(type);
+        }
+
+        if(converter == null) {
+            throw new IllegalArgumentException("No converter for " + type.getName()
+                    + ", register one with ConverterRegistry.register");
+        }
+
+        converters.putIfAbsent(type, converter);
+        return converter;
+    }
+
+    /**
+     * @return the converter for an array, {@code List}, {@code Set} or {@code Collection} parameter, or
+     * null if the type is not multi-valued
+     * @throws IllegalArgumentException if the element type cannot be converted from text
+     */
+    public static MultiValueConverter multiValueConverterFor(Type type) {
+        if(type instanceof Class && ((Class<?>) type).isArray()) {
+            Class<?> elementType = ((Class<?>) type).getComponentType();
+            Converter<?> element = converterFor(elementType);
+
+            return values -> {
+                Object array = Array.newInstance(elementType, values.size());
+                for(int i = 0 ; i < values.size() ; i++) {
+                    Array.set(array, i, element.convert(values.get(i)));
+                }
+                return array;
+            };
+        }
+
+        Class<?> rawType = type instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) type).getRawType()
+                : type instanceof Class ? (Class<?>) type : null;
+
+        IntFunction<Collection<Object>> factory = collectionFactory(rawType);
+        if(factory == null) {
+            return null;
+        }
+
+        Converter<?> element = converterFor(elementType(type));
+
+        return values -> {
+            Collection<Object> collection = factory.apply(values.size());
+            for(int i = 0 ; i < values.size() ; i++) {
+                collection.add(element.convert(values.get(i)));
+            }
+            return collection;
+        };
+    }
+
+    private static IntFunction<Collection<Object>> collectionFactory(Class<?> rawType) {
+        if(rawType == List.class || rawType == Collection.class || rawType == Iterable.class || rawType == ArrayList.class) {
+            return ArrayList::new;
+        }
+        if(rawType == Set.class || rawType == LinkedHashSet.class) {
+            return LinkedHashSet::new;
+        }
+        if(rawType == SortedSet.class || rawType == TreeSet.class) {
+            return size -> new TreeSet<>();
+        }
+        return null;
+    }
+
+    /**
+     * @return the element class of a collection type; raw collections hold Strings
+     */
+    private static Class<?> elementType(Type type) {
+        if(!(type instanceof ParameterizedType)) {
+            return String.class;
+        }
+
+        Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+        if(argument instanceof WildcardType) {
+            argument = ((WildcardType) argument).getUpperBounds()[0];
+        }
+        if(argument instanceof ParameterizedType) {
+            argument = ((ParameterizedType) argument).getRawType();
+        }
+
+        if(!(argument instanceof Class) || argument == Object.class) {
+            return String.class;
+        }
+        return (Class<?>) argument;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter<?> enumConverter(Class<?> type) {
+        Map<String, Enum<?>> byName = new HashMap<>();
+        for(Object constant : type.getEnumConstants()) {
+            Enum<?> value = (Enum<?>) constant;
+            byName.put(value.name(), value);
+            byName.putIfAbsent(value.name().toUpperCase(Locale.ROOT), value);
+        }
+
+        return value -> {
+            Enum<?> constant = byName.get(value);
+            if(constant == null) {
+                constant = byName.get(value.toUpperCase(Locale.ROOT));
+            }
+            if(constant == null) {
+                throw new IllegalArgumentException("No constant " + value + " in " + type.getSimpleName());
+            }
+            return constant;
+        };
+    }
+
+    /**
+     * Compiles a converter from a public static factory method or String constructor of the type.
+     */
+    private static Converter<?> factoryConverter(Class<?> type) {
+        if(!Modifier.isPublic(type.getModifiers())) {
+            return null;
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        for(String name : FACTORY_METHODS) {
+            for(Class<?> argument : new Class<?>[] { String.class, CharSequence.class }) {
+                try {
+                    return compile(lookup.findStatic(type, name, MethodType.methodType(type, argument)));
+                }
+                catch (NoSuchMethodException | IllegalAccessException ignored) {
+                    // Try the next candidate
+                }
+            }
+        }
+
+        try {
+            return compile(lookup.findConstructor(type, MethodType.methodType(void.class, String.class)));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Converter<?> compile(MethodHandle factory) {
+        MethodHandle handle = factory.asType(MethodType.methodType(Object.class, String.class));
+
+        return value -> {
+            try {
+                return handle.invokeExact(value);
+            }
+            catch (RuntimeException | Error e) {
+                throw e;
+            }
+            catch (Throwable t) {
+                throw new IllegalArgumentException(t);
+            }
+        };
+    }
+
+    private static Character toCharacter(String value) {
+        if(value.length() != 1) {
+            throw new IllegalArgumentException("Expected a single character");
+        }
+        return value.charAt(0);
+    }
+}
@@ -10,6 +10,8 @@ import component.ComponentModule;
 import controller.RestControllerModule;
 import database_config.ConfigPropertiesGenerator;
 import dependency_injector.DependencyInjector;
+import jdbc_executor.JdbcExecutor;
+import node_executor.NodeExecutor;
 import node_executor.NodeScriptGenerator;
 import repository.RepositoryModule;
 import server.HTTPServerStarter;
@@ -51,6 +53,8 @@ public class LightCoreApplicationRunner {
 
             NodeScriptGenerator.generateIfMissing();
             ConfigPropertiesGenerator.generateIfMissing();
+            NodeExecutor.start();
+            JdbcExecutor.start();
 
             HTTPServerStarter.start();
 
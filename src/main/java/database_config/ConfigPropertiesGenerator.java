@@ -26,10 +26,84 @@ public class ConfigPropertiesGenerator {
     db.host=
     db.port=
     
+    #Query Engine (node | node-worker | jdbc)
+    db.engine=node
+    db.worker.timeout=30000
+    db.worker.count=
+    db.worker.connections=10
+    
+    #JDBC Connection Pool (db.engine=jdbc)
+    db.pool.size=10
+    db.pool.timeout=30000
+    db.pool.maxLifetime=1800000
+    db.pool.leakThreshold=0
+    
     #Server Configuration
     server.port=
     server.crossOrigin=false
     server.allowedOrigins=
+    
+    #HTTP Engine (jdk | nio)
+    server.engine=jdk
+    server.backlog=1024
+    server.keepAliveTimeout=30
+    server.tcpNoDelay=true
+    server.drainTimeout=30
+    server.maxBodySize=10485760
+    server.response.bufferSize=65536
+    server.stream.flushSize=16384
+    server.nio.acceptors=1
+    server.nio.eventLoops=
+    
+    #Metrics
+    server.metrics.enabled=true
+    server.metrics.path=/lightcore/metrics
+    server.metrics.allowRemote=false
+    
+    #Batch Requests
+    server.batch.enabled=true
+    server.batch.path=/lightcore/batch
+    server.batch.maxRequests=20
+    server.batch.parallelism=4
+    
+    #Tracing
+    server.tracing.enabled=false
+    server.tracing.serverTiming=true
+    server.tracing.sampleRate=0.01
+    server.tracing.slowThreshold=0
+    
+    #Static Files
+    server.static.dir=
+    server.static.prefix=/static
+    server.static.maxAge=0
+    
+    #Response Compression
+    server.compression.enabled=true
+    server.compression.minSize=1024
+    server.compression.level=6
+    
+    #Response Cache
+    server.cache.maxBytes=67108864
+    
+    #Admission Control
+    server.admission.maxConcurrent=256
+    server.admission.queueSize=512
+    server.admission.maxWait=1000
+    server.admission.retryAfter=1
+    
+    #Request Execution (pool | virtual | dispatcher)
+    server.executor=pool
+    server.executor.poolSize=
+    server.executor.queueCapacity=
+    server.executor.rejectionPolicy=abort
+    server.async.timeout=30000
+    server.async.repositoryThreads=
+    server.async.repositoryQueue=1024
+    
+    #JSON
+    json.failOnUnknownProperties=false
+    json.writeDatesAsTimestamps=false
+    json.blackbird=false
     """;
 
     public static void generateIfMissing() throws IOException {
@@ -18,6 +18,14 @@ public class DatabaseConfig {
     private String database;
     private String host;
     private int port;
+    private String engine = "node";
+    private long workerTimeout = 30_000;
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+    private int workerConnections = 10;
+    private int poolSize = 10;
+    private long poolTimeout = 30_000;
+    private long poolMaxLifetime = 1_800_000;
+    private long poolLeakThreshold = 0;
 
     public DatabaseConfig() {
         Properties properties = new Properties();
@@ -29,6 +37,19 @@ public class DatabaseConfig {
             this.username = properties.getProperty("db.username");
             this.password = properties.getProperty("db.password");
             this.database = properties.getProperty("db.database");
+            this.engine = properties.getProperty("db.engine", engine).trim().toLowerCase();
+            this.workerTimeout = Long.parseLong(properties.getProperty("db.worker.timeout", String.valueOf(workerTimeout)).trim());
+
+            String count = properties.getProperty("db.worker.count", "").trim();
+            if(!count.isEmpty()) {
+                this.workerCount = Math.max(1, Integer.parseInt(count));
+            }
+            this.workerConnections = Math.max(1, Integer.parseInt(properties.getProperty("db.worker.connections", String.valueOf(workerConnections)).trim()));
+
+            this.poolSize = Math.max(1, Integer.parseInt(properties.getProperty("db.pool.size", String.valueOf(poolSize)).trim()));
+            this.poolTimeout = Long.parseLong(properties.getProperty("db.pool.timeout", String.valueOf(poolTimeout)).trim());
+            this.poolMaxLifetime = Long.parseLong(properties.getProperty("db.pool.maxLifetime", String.valueOf(poolMaxLifetime)).trim());
+            this.poolLeakThreshold = Long.parseLong(properties.getProperty("db.pool.leakThreshold", String.valueOf(poolLeakThreshold)).trim());
         }
         catch (IOException e) {
             e.printStackTrace();
@@ -54,4 +75,71 @@ public class DatabaseConfig {
     public int getPort() {
         return port;
     }
+
+    /**
+     * @return how queries reach MySQL: "node" (one Node process per call), "node-worker"
+     * (persistent Node processes started at boot) or "jdbc" (in process, over the MySQL JDBC driver)
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return milliseconds a query may wait for the Node worker's answer
+     */
+    public long getWorkerTimeout() {
+        return workerTimeout;
+    }
+
+    /**
+     * @return how many Node workers serve queries with {@code db.engine=node-worker}, one per core by default
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * @return the MySQL connections all Node workers may open together
+     */
+    public int getWorkerConnections() {
+        return workerConnections;
+    }
+
+    /**
+     * @return the size of a worker's mysql2 pool: {@code db.worker.connections} split evenly across the
+     * workers, the first ones taking the remainder. The pool starts at most one worker per connection,
+     * so the shares always add up to the budget.
+     */
+    public int getWorkerConnectionLimit(int index) {
+        int workers = Math.min(workerCount, workerConnections);
+        return workerConnections / workers + (index < workerConnections % workers ? 1 : 0);
+    }
+
+    /**
+     * @return the maximum number of JDBC connections the pool opens
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return milliseconds a query waits for a free JDBC connection before failing
+     */
+    public long getPoolTimeout() {
+        return poolTimeout;
+    }
+
+    /**
+     * @return milliseconds after which a JDBC connection is closed and replaced
+     */
+    public long getPoolMaxLifetime() {
+        return poolMaxLifetime;
+    }
+
+    /**
+     * @return milliseconds a connection may stay borrowed before a possible leak is logged, 0 to disable
+     */
+    public long getPoolLeakThreshold() {
+        return poolLeakThreshold;
+    }
 }
\ No newline at end of file
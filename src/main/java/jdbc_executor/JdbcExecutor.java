@@ -0,0 +1,248 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package jdbc_executor;
+
+import connection_pool.ConnectionPool;
+import database_config.DatabaseConfig;
+import node_executor.QueryRequest;
+import tracing.Span;
+import tracing.Tracer;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Runs {@code @Query} batches in process over JDBC when {@code db.engine=jdbc}. Results have the shape
+ * {@code query-executor.js} prints, one map per query with type, affectedRows, insertId, message and, for
+ * SELECTs, rows, so {@link repository.RepositoryProxy} maps them the same way. Column values are decoded
+ * from their SQL type instead of going through JSON.
+ */
+public class JdbcExecutor {
+    private static final Logger logger = Logger.getLogger(JdbcExecutor.class.getName());
+
+    // Same per-statement limit as the Node scripts
+    private static final int QUERY_TIMEOUT_SECONDS = 1;
+
+    private static volatile ConnectionPool pool;
+
+    /**
+     * Enables the engine and creates its connection pool when {@code db.engine=jdbc}. Called once at boot.
+     */
+    public static void start() {
+        DatabaseConfig config = new DatabaseConfig();
+
+        if("jdbc".equals(config.getEngine())) {
+            ConnectionPool created = new ConnectionPool(config);
+            Runtime.getRuntime().addShutdownHook(new Thread(created::close, "lightcore-db-pool-shutdown"));
+            pool = created;
+            logger.info("JDBC query engine enabled for " + created.getUrl() + " (pool of " + config.getPoolSize() + ")");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return pool != null;
+    }
+
+    /**
+     * Runs a batch on one connection. A batch containing an INSERT, UPDATE or DELETE runs in a
+     * transaction that is rolled back if any statement fails.
+     *
+     * @return one result map per query
+     * @throws IOException if a statement fails
+     */
+    public static List<Map<String, Object>> executeQuery(List<QueryRequest> batch) throws IOException {
+        boolean needsTransaction = batch.stream().anyMatch(query -> isWrite(query.getSql()));
+
+        try (Connection connection = openConnection()) {
+            if(!needsTransaction) {
+                return executeAll(connection, batch);
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                List<Map<String, Object>> results = executeAll(connection, batch);
+                connection.commit();
+                return results;
+            }
+            catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                }
+                catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            }
+        }
+        catch (SQLException e) {
+            throw new IOException("JDBC query failed: " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("try")
+    private static Connection openConnection() throws SQLException {
+        ConnectionPool current = pool;
+        if(current == null) {
+            throw new SQLException("The JDBC query engine is not enabled");
+        }
+
+        try (Span span = Tracer.span("jdbc.connect")) {
+            return current.getConnection();
+        }
+    }
+
+    @SuppressWarnings("try")
+    private static List<Map<String, Object>> executeAll(Connection connection, List<QueryRequest> batch) throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>(batch.size());
+
+        for(QueryRequest query : batch) {
+            try (Span span = Tracer.span("jdbc.exec")) {
+                results.add(execute(connection, query));
+            }
+        }
+
+        return results;
+    }
+
+    private static Map<String, Object> execute(Connection connection, QueryRequest query) throws SQLException {
+        String sql = query.getSql().trim();
+        String type = sql.toUpperCase().split(" ")[0];
+        boolean select = sql.toUpperCase().startsWith("SELECT");
+
+        try (PreparedStatement statement = select
+                ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            bind(statement, query.getParams());
+
+            boolean hasResultSet = statement.execute();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("type", type);
+
+            if(select) {
+                List<Map<String, Object>> rows = hasResultSet ? readRows(statement.getResultSet()) : List.of();
+                result.put("affectedRows", rows.size());
+                result.put("insertId", null);
+                result.put("message", rows.isEmpty() ? "No rows found" : rows.size() + " rows found");
+                result.put("rows", rows);
+                return result;
+            }
+
+            result.put("affectedRows", hasResultSet ? 0 : Math.max(0, statement.getUpdateCount()));
+            result.put("insertId", readGeneratedKey(statement));
+            result.put("message", type + " execute successfully");
+            result.put("error", null);
+            return result;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> params) throws SQLException {
+        if(params == null) {
+            return;
+        }
+
+        for(int i = 0 ; i < params.size() ; i++) {
+            statement.setObject(i + 1, toSqlValue(params.get(i)));
+        }
+    }
+
+    /**
+     * Converts the parameter types the driver does not bind by itself.
+     */
+    private static Object toSqlValue(Object value) {
+        if(value instanceof Enum<?>) {
+            return ((Enum<?>) value).name();
+        }
+        if(value instanceof Instant) {
+            return Timestamp.from((Instant) value);
+        }
+        if(value instanceof java.util.Date && !(value instanceof java.sql.Date || value instanceof java.sql.Time || value instanceof Timestamp)) {
+            return new Timestamp(((java.util.Date) value).getTime());
+        }
+        if(value instanceof Character) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private static List<Map<String, Object>> readRows(ResultSet resultSet) throws SQLException {
+        try (ResultSet rs = resultSet) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columns = metaData.getColumnCount();
+            String[] labels = new String[columns];
+            int[] types = new int[columns];
+
+            for(int i = 0 ; i < columns ; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+                types[i] = metaData.getColumnType(i + 1);
+            }
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            while(rs.next()) {
+                Map<String, Object> row = new LinkedHashMap<>(columns * 2);
+                for(int i = 0 ; i < columns ; i++) {
+                    row.put(labels[i], readValue(rs, i + 1, types[i]));
+                }
+                rows.add(row);
+            }
+
+            return rows;
+        }
+    }
+
+    /**
+     * Decodes a column by its SQL type. Date-times become {@link Instant}s, read in the JVM time zone like
+     * mysql2 does, so they serialize to the same ISO-8601 UTC strings the Node engines produce.
+     */
+    private static Object readValue(ResultSet rs, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                Timestamp timestamp = rs.getTimestamp(column);
+                return timestamp != null ? timestamp.toInstant() : null;
+            case Types.DATE:
+                java.sql.Date date = rs.getDate(column);
+                return date != null ? date.toLocalDate() : null;
+            case Types.TIME:
+                return rs.getString(column);
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return rs.getBigDecimal(column);
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return rs.getBytes(column);
+            default:
+                return rs.getObject(column);
+        }
+    }
+
+    private static Object readGeneratedKey(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            // mysql2 reports 0 when the statement generated no key
+            return keys.next() ? keys.getLong(1) : 0L;
+        }
+    }
+
+    private static boolean isWrite(String sql) {
+        String trimmed = sql.trim().toUpperCase();
+        return trimmed.startsWith("INSERT") || trimmed.startsWith("UPDATE") || trimmed.startsWith("DELETE");
+    }
+}
@@ -0,0 +1,162 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The wire formats request and response bodies can use. JSON is the default; CBOR and Smile are
+ * binary encodings of the same data model, cheaper to parse for service-to-service callers, and are
+ * chosen by the client with {@code Accept} and {@code Content-Type}. Each format has its own mapper,
+ * configured like the JSON one, with per-type reader and writer caches.
+ */
+public enum DataFormat {
+    JSON("application/json", "application/json; charset=utf-8", JsonSupport::mapper),
+    CBOR("application/cbor", "application/cbor", () -> JsonSupport.createMapper(new CBORFactory())),
+    SMILE("application/x-jackson-smile", "application/x-jackson-smile", () -> JsonSupport.createMapper(new SmileFactory()));
+
+    private static final DataFormat[] FORMATS = values();
+
+    private final String mediaType;
+    private final String contentType;
+    private final Supplier<ObjectMapper> mapperFactory;
+
+    private volatile ObjectMapper mapper;
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ClassValue<ObjectWriter> writers = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return mapper().writerFor(type);
+        }
+    };
+
+    DataFormat(String mediaType, String contentType, Supplier<ObjectMapper> mapperFactory) {
+        this.mediaType = mediaType;
+        this.contentType = contentType;
+        this.mapperFactory = mapperFactory;
+    }
+
+    /**
+     * @return the Content-Type header of bodies in this format
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the mapper of this format, created on first use so binary formats cost nothing until requested
+     */
+    public ObjectMapper mapper() {
+        ObjectMapper current = mapper;
+
+        if(current == null) {
+            synchronized (this) {
+                current = mapper;
+                if(current == null) {
+                    current = mapperFactory.get();
+                    mapper = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    public ObjectReader reader(Type type) {
+        if(this == JSON) {
+            return JsonSupport.reader(type);
+        }
+        return readers.computeIfAbsent(type, key -> mapper().readerFor(mapper().constructType(key)));
+    }
+
+    public ObjectWriter writer(Class<?> type) {
+        if(this == JSON) {
+            return JsonSupport.writer(type);
+        }
+        return writers.get(type);
+    }
+
+    /**
+     * Picks the response format from an Accept header: the supported binary format with the highest
+     * quality, as long as JSON is not preferred over it. Anything else, including no header, is JSON.
+     */
+    public static DataFormat negotiate(String accept) {
+        if(accept == null || accept.indexOf('/') < 0) {
+            return JSON;
+        }
+
+        DataFormat best = JSON;
+        double bestQuality = 0;
+        double jsonQuality = 0;
+
+        for(String range : accept.split(",")) {
+            int semicolon = range.indexOf(';');
+            String mediaType = (semicolon >= 0 ? range.substring(0, semicolon) : range).trim().toLowerCase();
+            double quality = semicolon >= 0 ? quality(range.substring(semicolon + 1)) : 1;
+
+            if(mediaType.equals(JSON.mediaType)) {
+                jsonQuality = Math.max(jsonQuality, quality);
+                continue;
+            }
+
+            for(int i = 1 ; i < FORMATS.length ; i++) {
+                if(mediaType.equals(FORMATS[i].mediaType) && quality > bestQuality) {
+                    best = FORMATS[i];
+                    bestQuality = quality;
+                }
+            }
+        }
+
+        return bestQuality > 0 && bestQuality >= jsonQuality ? best : JSON;
+    }
+
+    /**
+     * @return the format of a request body with the given Content-Type; JSON if absent or unknown
+     */
+    public static DataFormat fromContentType(String contentType) {
+        if(contentType == null) {
+            return JSON;
+        }
+
+        for(int i = 1 ; i < FORMATS.length ; i++) {
+            if(contentType.regionMatches(true, 0, FORMATS[i].mediaType, 0, FORMATS[i].mediaType.length())) {
+                return FORMATS[i];
+            }
+        }
+
+        return JSON;
+    }
+
+    /**
+     * @param parameters the part of an Accept media range after its first ';'
+     * @return its q-value, 1 when it has none and 0 when it is malformed
+     */
+    public static double quality(String parameters) {
+        for(String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+
+            if(trimmed.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2));
+                }
+                catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+}
@@ -0,0 +1,114 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * The framework-wide JSON subsystem. Every component (request binding, response writing, Node and
+ * repository result mapping) shares one configured {@link ObjectMapper}, so Jackson's serializer and
+ * deserializer caches are built once per type. Configured with the "json.*" keys of config.properties.
+ */
+public class JsonSupport {
+    private static final Logger logger = Logger.getLogger(JsonSupport.class.getName());
+
+    private static final String CONFIG_FILE_PATH = "src/main/resources/lightcoreconfig/config.properties";
+
+    private static final ObjectMapper objectMapper = createMapper();
+
+    private static final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private static final ClassValue<ObjectWriter> writers = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return objectMapper.writerFor(type);
+        }
+    };
+
+    public static ObjectMapper mapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Returns the reader for the given (possibly generic) type, resolving it on first use.
+     * Callers on the request path should keep the returned reader instead of looking it up per request.
+     *
+     * @param type the target type, e.g. a controller parameter's parameterized type
+     * @return the shared reader for the type
+     */
+    public static ObjectReader reader(Type type) {
+        return readers.computeIfAbsent(type, key -> objectMapper.readerFor(objectMapper.constructType(key)));
+    }
+
+    /**
+     * @param type the runtime class of the value to serialize
+     * @return the shared writer for the class
+     */
+    public static ObjectWriter writer(Class<?> type) {
+        return writers.get(type);
+    }
+
+    private static ObjectMapper createMapper() {
+        return createMapper(new JsonFactory());
+    }
+
+    /**
+     * Builds a mapper over the given format with the configuration of the JSON mapper, so every data
+     * format binds and serializes the same way.
+     */
+    static ObjectMapper createMapper(JsonFactory factory) {
+        Properties properties = loadProperties();
+
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+                        Boolean.parseBoolean(properties.getProperty("json.failOnUnknownProperties", "false")))
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        Boolean.parseBoolean(properties.getProperty("json.writeDatesAsTimestamps", "false")))
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule())
+                .registerModule(new ParameterNamesModule());
+
+        if(Boolean.parseBoolean(properties.getProperty("json.blackbird", "false"))) {
+            mapper.registerModule(new BlackbirdModule());
+            if(JsonFactory.FORMAT_NAME_JSON.equals(factory.getFormatName())) {
+                logger.info("Jackson Blackbird acceleration enabled");
+            }
+        }
+
+        return mapper;
+    }
+
+    private static Properties loadProperties() {
+        Properties properties = new Properties();
+        File file = new File(CONFIG_FILE_PATH);
+
+        if(file.exists()) {
+            try (InputStream inputStream = new FileInputStream(file)) {
+                properties.load(inputStream);
+            }
+            catch (IOException e) {
+                logger.info("Error reading config. Using default JSON configuration");
+            }
+        }
+
+        return properties;
+    }
+}
@@ -0,0 +1,81 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Framework-wide registry of counters, gauges and latency histograms.
+ * Series names follow the Prometheus convention and may carry labels,
+ * e.g. {@code lightcore_executor_rejected_total} or {@code lightcore_executor_info{mode="pool"}}.
+ */
+public class MetricsRegistry {
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter registered under the given name, creating it on first use.
+     * The returned adder can be cached by the caller and incremented without further lookups.
+     *
+     * @param name the series name
+     * @return the counter for the series
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers (or replaces) a gauge whose value is read lazily on every snapshot.
+     *
+     * @param name     the series name
+     * @param supplier the function providing the current value
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Returns the latency histogram registered under the given name, creating it on first use.
+     *
+     * @param name the series name without the _bucket/_sum/_count suffix, e.g. {@code lightcore_http_request_duration_seconds{route="GET:/users"}}
+     * @return the histogram for the series
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Escapes a label value for use inside a series name.
+     */
+    public static String labelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public static void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    public static Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, adder) -> snapshot.put(name, adder.sum()));
+        return snapshot;
+    }
+
+    public static Map<String, Long> getGauges() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        gauges.forEach((name, supplier) -> snapshot.put(name, supplier.getAsLong()));
+        return snapshot;
+    }
+
+    public static Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+}
@@ -0,0 +1,81 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package metrics;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Renders the {@link MetricsRegistry} in the Prometheus text exposition format (version 0.0.4).
+ */
+public class PrometheusExporter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String[] BUCKET_LABELS;
+
+    static {
+        double[] bounds = LatencyHistogram.getBoundsSeconds();
+        BUCKET_LABELS = new String[bounds.length + 1];
+
+        for(int i = 0 ; i < bounds.length ; i++) {
+            BUCKET_LABELS[i] = "le=\"" + BigDecimal.valueOf(bounds[i]).stripTrailingZeros().toPlainString() + "\"";
+        }
+        BUCKET_LABELS[bounds.length] = "le=\"+Inf\"";
+    }
+
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(8 * 1024);
+
+        appendSamples(out, MetricsRegistry.getCounters(), "counter");
+        appendSamples(out, MetricsRegistry.getGauges(), "gauge");
+
+        String family = null;
+        for(Map.Entry<String, LatencyHistogram> entry : MetricsRegistry.getHistograms().entrySet()) {
+            String name = entry.getKey();
+            String base = baseName(name);
+            String labels = name.length() > base.length() ? name.substring(base.length() + 1, name.length() - 1) : "";
+            String separator = labels.isEmpty() ? "" : ",";
+            LatencyHistogram histogram = entry.getValue();
+
+            if(!base.equals(family)) {
+                out.append("# TYPE ").append(base).append(" histogram\n");
+                family = base;
+            }
+
+            long[] counts = histogram.getCumulativeCounts();
+            for(int i = 0 ; i < counts.length ; i++) {
+                out.append(base).append("_bucket{").append(labels).append(separator).append(BUCKET_LABELS[i])
+                   .append("} ").append(counts[i]).append('\n');
+            }
+
+            String suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+            out.append(base).append("_sum").append(suffixLabels).append(' ').append(histogram.getSumNanos() / 1e9).append('\n');
+            out.append(base).append("_count").append(suffixLabels).append(' ').append(counts[counts.length - 1]).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private static void appendSamples(StringBuilder out, Map<String, Long> samples, String type) {
+        String family = null;
+
+        for(Map.Entry<String, Long> sample : samples.entrySet()) {
+            String base = baseName(sample.getKey());
+
+            if(!base.equals(family)) {
+                out.append("# TYPE ").append(base).append(' ').append(type).append('\n');
+                family = base;
+            }
+
+            out.append(sample.getKey()).append(' ').append(sample.getValue()).append('\n');
+        }
+    }
+
+    private static String baseName(String series) {
+        int brace = series.indexOf('{');
+        return brace >= 0 ? series.substring(0, brace) : series;
+    }
+}
@@ -5,13 +5,26 @@
 
 package node_executor;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import database_config.DatabaseConfig;
+import json.JsonSupport;
+import tracing.Span;
+import tracing.Tracer;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 public class NodeExecutor {
@@ -20,126 +33,183 @@ public class NodeExecutor {
     private static final String SCRIPT_PATH_MYSQL = "src/main/resources/node-scripts/mysql/query-executor.js";
     private static final String SCRIPT_PATH_FILE = "src/main/resources/node-scripts/file-handler/file-executor.js";
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
-    public static Object executeQuery(List<QueryRequest> batch) throws IOException {
-        try {
-            DatabaseConfig config = new DatabaseConfig();
-
-            File tempJson = File.createTempFile("batch", ".json");
-            objectMapper.writeValue(tempJson, batch);
-
-            List<String> command = List.of(
-                    "node", SCRIPT_PATH_MYSQL,
-                    config.getHost(),
-                    String.valueOf(config.getPort()),
-                    config.getUsername(),
-                    config.getPassword(),
-                    config.getDatabase(),
-                    tempJson.getAbsolutePath()
-            );
-
-            System.out.println("Executing: " + "query-executor.js");
-
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.directory(new File("."));
-            Process process = pb.start();
+    private static final ObjectMapper objectMapper = JsonSupport.mapper();
+    private static final ObjectReader rowsReader = objectMapper.readerFor(new TypeReference<List<Map<String, Object>>>(){});
+    private static final ObjectReader resultReader = objectMapper.readerFor(Object.class);
+
+    // Path the scripts read their batch from. /dev/stdin is a plain path to scripts generated before the
+    // batch was piped, so they keep working; Windows has no such file and uses "-", which the current
+    // scripts map to file descriptor 0.
+    private static final String STDIN = System.getProperty("os.name", "").startsWith("Windows") ? "-" : "/dev/stdin";
+
+    private static final ExecutorService stderrDrainer = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "lightcore-node-stderr");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Kills scripts still running at their deadline, which also unblocks a read waiting on their stdout
+    private static final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "lightcore-node-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
+    private static volatile NodeWorkerPool workers;
 
-            StringBuilder jsonOutput = new StringBuilder();
-            StringBuilder errorOutput = new StringBuilder();
+    /**
+     * Starts the persistent query workers when {@code db.engine=node-worker}. Called once at boot, after
+     * the Node scripts have been generated.
+     */
+    public static void start() throws IOException {
+        DatabaseConfig config = new DatabaseConfig();
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonOutput.append(line);
-            }
-            while((line = errorReader.readLine()) != null) {
-                errorOutput.append(line);
-            }
+        if("node-worker".equals(config.getEngine())) {
+            NodeWorkerPool started = new NodeWorkerPool(config);
+            started.start();
+            workers = started;
+        }
+    }
 
-            int exitCode = process.waitFor();
-            if(exitCode != 0) {
-                throw new RuntimeException("Node script failed: " + errorOutput.toString());
+    @SuppressWarnings("try")
+    public static Object executeQuery(List<QueryRequest> batch) throws IOException {
+        NodeWorkerPool current = workers;
+        if(current != null) {
+            try (Span span = Tracer.span("node.worker")) {
+                return current.execute(batch);
             }
+        }
 
-            String result = jsonOutput.toString().trim();
+        DatabaseConfig config = new DatabaseConfig();
 
-            if (result.isEmpty()) {
-                System.out.println("Node script returned empty output.");
-                return List.of(Map.of("affectedRows", 0));
-            }
+        List<String> command = List.of(
+                "node", SCRIPT_PATH_MYSQL,
+                config.getHost(),
+                String.valueOf(config.getPort()),
+                config.getUsername(),
+                config.getPassword(),
+                config.getDatabase(),
+                STDIN
+        );
 
-            try {
-                List<Map<String, Object>> rowResult = objectMapper.readValue(result, new TypeReference<List<Map<String, Object>>>(){});
-                return rowResult;
-            }
-            catch (Exception e) {
-                throw new RuntimeException("Failed to parse Node script output: " + result, e);
-            }
-        } catch (Exception e) {
-            throw new IOException("Failed to execute query-executor.js script", e);
-        }
+        return run("query-executor.js", command, batch, rowsReader, config.getWorkerTimeout());
     }
 
-    public static Object executeFileHandler (List<FileRequest> batch) throws IOException{
-        try {
-            File tempJson = File.createTempFile("file.ops", ".json");
-            objectMapper.writeValue(tempJson, batch);
-
-            List<String> command = List.of(
-                    "node",
-                    SCRIPT_PATH_FILE,
-                    tempJson.getAbsolutePath()
-            );
-
-            logger.info("Executing: file-executor.js");
+    public static Object executeFileHandler(List<FileRequest> batch) throws IOException {
+        List<String> command = List.of("node", SCRIPT_PATH_FILE, STDIN);
 
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.directory(new File("."));
-            Process process = pb.start();
+        return run("file-executor.js", command, batch, resultReader, new DatabaseConfig().getWorkerTimeout());
+    }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
+    /**
+     * Runs a script with the batch written to its stdin and reads its result straight from its stdout.
+     * Stderr is drained on another thread so a chatty script cannot block on a full pipe, and the
+     * process is killed if it is still alive when this returns or after {@code timeoutMillis}.
+     */
+    @SuppressWarnings("try")
+    private static Object run(String script, List<String> command, Object batch, ObjectReader reader, long timeoutMillis) throws IOException {
+        logger.info("Executing: " + script);
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(new File("."));
+        Process process;
+        try (Span span = Tracer.span("node.spawn")) {
+            process = pb.start();
+        }
 
-            StringBuilder jsonOutput = new StringBuilder();
-            StringBuilder errorOutput = new StringBuilder();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> deadline = watchdog.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonOutput.append(line);
-            }
-            while((line = errorReader.readLine()) != null) {
-                errorOutput.append(line);
+        try {
+            CompletableFuture<String> errors = CompletableFuture.supplyAsync(() -> readErrors(process), stderrDrainer);
+            Object result = null;
+            IOException failure = null;
+            int exitCode;
+
+            // Covers the whole child process lifetime, MySQL round trips and output parsing included
+            try (Span span = Tracer.span("node.exec")) {
+                try (OutputStream stdin = process.getOutputStream()) {
+                    objectMapper.writeValue(stdin, batch);
+                }
+                catch (IOException e) {
+                    // The script died before reading its input; its exit code and stderr tell why
+                    failure = e;
+                }
+
+                if(failure == null) {
+                    try (InputStream stdout = process.getInputStream()) {
+                        result = readResult(stdout, reader);
+                    }
+                    catch (IOException e) {
+                        failure = e;
+                    }
+                }
+
+                // The watchdog fires at the deadline; this only covers the time it takes the kill to land
+                if(!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    timedOut.set(true);
+                    process.destroyForcibly();
+                }
+                exitCode = timedOut.get() ? -1 : process.exitValue();
             }
 
-            int exitCode = process.waitFor();
+            if(timedOut.get()) {
+                throw new IOException("Failed to execute " + script + " script: timed out after " + timeoutMillis + " ms", failure);
+            }
             if(exitCode != 0) {
-                throw new RuntimeException("Node script failed: " + errorOutput.toString());
+                throw new IOException("Failed to execute " + script + " script: Node script failed: " + errors.join(), failure);
+            }
+            if(failure != null) {
+                throw new IOException("Failed to execute " + script + " script", failure);
             }
 
-            String result = jsonOutput.toString().trim();
-
-            if (result.isEmpty()) {
-                System.out.println("Node script returned empty output.");
+            if(result == null) {
+                logger.info("Node script returned empty output.");
                 return List.of(Map.of("affectedRows", 0));
             }
 
-            try {
-                List<Map<String, Object>> rowResult = objectMapper.readValue(result, new TypeReference<List<Map<String, Object>>>(){});
-                return rowResult;
-            }
-            catch (Exception e) {
-                throw new RuntimeException("Failed to parse Node script output: " + result, e);
-            }
+            return result;
         }
         catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Execution interrupted");
         }
-        catch (Exception e) {
-            throw new IOException("Failed to execute file-executor.js script");
+        finally {
+            deadline.cancel(false);
+            if(process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * @return the value printed by the script, or null if it printed nothing
+     */
+    private static Object readResult(InputStream stdout, ObjectReader reader) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(stdout)) {
+            // The caller owns stdout; without this Jackson closes it as soon as it reaches the end
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            Object result = parser.nextToken() != null ? reader.readValue(parser) : null;
+
+            // Anything printed after the value must still be consumed, or the script could block on a full pipe
+            stdout.transferTo(OutputStream.nullOutputStream());
+            return result;
+        }
+    }
+
+    private static String readErrors(Process process) {
+        try (InputStream stderr = process.getErrorStream()) {
+            return new String(stderr.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        catch (IOException e) {
+            return "";
         }
     }
-}
\ No newline at end of file
+}
@@ -28,6 +28,7 @@ public class NodeScriptGenerator {
     private static final String PACKAGE_JSON_PATH_CUSTOM = SCRIPT_CUSTOM_DIR + "/package.json";
 
     private static final String SCRIPT_PATH_MYSQL_EXECUTOR = SCRIPT_MYSQL_DIR + "/query-executor.js";
+    private static final String SCRIPT_PATH_MYSQL_WORKER = SCRIPT_MYSQL_DIR + "/query-worker.js";
     private static final String SCRIPT_PATH_FILE_EXECUTOR = SCRIPT_FILE_DIR + "/file-executor.js";
     private static final String SCRIPT_PATH_CUSTOM_SCRIPT_EXECUTOR = SCRIPT_CUSTOM_DIR + "/custom-executor.js";
 
@@ -48,7 +49,8 @@ public class NodeScriptGenerator {
         let shouldRollback = false;
         \s
         try {
-            const batchQueries = JSON.parse(fs.readFileSync(jsonPath, 'utf8'));
+            // "-" means the batch is piped on stdin (file descriptor 0)
+            const batchQueries = JSON.parse(fs.readFileSync(jsonPath === '-' ? 0 : jsonPath, 'utf8'));
             \s
             pool = mysql.createPool({
                 host,
@@ -175,6 +177,170 @@ public class NodeScriptGenerator {
     })();
     """;
 
+    private static final String SCRIPT_CONTENT_QUERY_WORKER = """
+    // This script is automatically generated and fully customizable.
+    // Modifications are allowed, but use at your own risk.
+    // LightCore will regenerate this file with defaults if deleted.
+    //
+    // Persistent query worker (db.engine=node-worker). Reads one JSON request per line,
+    // { "id": 1, "queries": [{ "sql": "...", "params": [] }] }, and answers each with one line,
+    // { "id": 1, "results": [...] } or { "id": 1, "error": "...", "details": {...} }.
+    // Given a socket path, the messages travel over that Unix domain socket; otherwise over stdin and stdout.
+    // Requests run concurrently on a pool that stays open for the lifetime of the process.
+    
+    const net = require('net');
+    const readline = require('readline');
+    const mysql = require('mysql2/promise');
+    
+    const [host, port, user, password, database, socketPath, connectionLimit] = process.argv.slice(2);
+    
+    const pool = mysql.createPool({
+        host,
+        port: parseInt(port),
+        user,
+        password,
+        database,
+        waitForConnections: true,
+        connectionLimit: parseInt(connectionLimit) || 10,
+        queueLimit: 0
+    });
+    
+    function processRow(row) {
+        const processedRow = {};
+    
+        for (const [key, value] of Object.entries(row)) {
+            if (value instanceof Buffer) {
+                processedRow[key] = Array.from(value);
+            } else if (value instanceof Date) {
+                processedRow[key] = value.toISOString();
+            } else if (typeof value === 'bigint') {
+                processedRow[key] = value.toString();
+            } else if (typeof value === 'number' && !Number.isInteger(value)) {
+                processedRow[key] = value.toString();
+            } else {
+                processedRow[key] = value;
+            }
+        }
+    
+        return processedRow;
+    }
+    
+    async function executeBatch(batchQueries) {
+        const needsTransaction = batchQueries.some(q =>
+            q.sql.trim().toUpperCase().startsWith('INSERT') ||
+            q.sql.trim().toUpperCase().startsWith('UPDATE') ||
+            q.sql.trim().toUpperCase().startsWith('DELETE')
+        );
+    
+        const connection = await pool.getConnection();
+        let shouldRollback = false;
+    
+        try {
+            if (needsTransaction) {
+                await connection.beginTransaction();
+                shouldRollback = true;
+            }
+    
+            const results = [];
+    
+            for (const { sql, params } of batchQueries) {
+                let rows;
+                try {
+                    [rows] = await connection.execute({ sql, timeout: 1000 }, params);
+                } catch (error) {
+                    throw { error: error.message, sql, params };
+                }
+    
+                const sqlTrimmed = sql.trim().toUpperCase();
+    
+                if (sqlTrimmed.startsWith('SELECT')) {
+                    results.push({
+                        type: "SELECT",
+                        affectedRows: rows.length,
+                        insertId: null,
+                        message: rows.length > 0 ? rows.length + " rows found" : "No rows found",
+                        rows: rows.map(processRow)
+                    });
+                } else {
+                    results.push({
+                        type: sqlTrimmed.split(' ')[0],
+                        affectedRows: rows.affectedRows ?? 0,
+                        insertId: rows.insertId ?? null,
+                        message: `${sqlTrimmed.split(' ')[0]} execute successfully`,
+                        error: null
+                    });
+                }
+            }
+    
+            if (needsTransaction) {
+                await connection.commit();
+                shouldRollback = false;
+            }
+    
+            return results;
+        } catch (error) {
+            if (shouldRollback) {
+                try {
+                    await connection.rollback();
+                } catch (rollbackError) {
+                    error.rollbackError = rollbackError.message;
+                }
+            }
+            throw error;
+        } finally {
+            connection.release();
+        }
+    }
+    
+    function serve(input, output) {
+        const lines = readline.createInterface({ input, crlfDelay: Infinity });
+        const reply = message => output.write(JSON.stringify(message) + '\\n');
+    
+        lines.on('line', line => {
+            if (!line.trim()) {
+                return;
+            }
+    
+            let request;
+            try {
+                request = JSON.parse(line);
+            } catch (error) {
+                reply({ id: null, error: 'Malformed request: ' + error.message });
+                return;
+            }
+    
+            executeBatch(request.queries).then(
+                results => reply({ id: request.id, results }),
+                error => reply({
+                    id: request.id,
+                    error: error.error || error.message,
+                    details: { sql: error.sql, params: error.params, rollbackError: error.rollbackError }
+                })
+            );
+        });
+    
+        return lines;
+    }
+    
+    async function shutdown() {
+        await pool.end().catch(() => {});
+        process.exit(0);
+    }
+    
+    if (socketPath) {
+        net.createServer(socket => {
+            socket.on('error', () => socket.destroy());
+            serve(socket, socket);
+        }).listen(socketPath);
+    
+        // stdin carries no requests here, it only closes when the Java process exits or stops the worker
+        process.stdin.on('data', () => {});
+        process.stdin.on('end', shutdown);
+    } else {
+        serve(process.stdin, process.stdout).on('close', shutdown);
+    }
+    """;
+
     private static final String SCRIPT_CONTENT_FILE_EXECUTOR = """
     // This script is automatically generated and fully customizable.
     // Modifications are allowed, but use at your own risk.
@@ -187,7 +353,9 @@ public class NodeScriptGenerator {
         const [jsonPath] = process.argv.slice(2);
     
         try {
-            const operations = JSON.parse(await fs.readFile(jsonPath, 'utf8'));
+            // "-" means the operations are piped on stdin (file descriptor 0)
+            const input = jsonPath === '-' ? require('fs').readFileSync(0, 'utf8') : await fs.readFile(jsonPath, 'utf8');
+            const operations = JSON.parse(input);
             const output = {
                 success: true,
                 results: []
@@ -387,6 +555,7 @@ public class NodeScriptGenerator {
 
         // generate script files
         generateExecutor(SCRIPT_PATH_MYSQL_EXECUTOR, SCRIPT_CONTENT_QUERY_EXECUTOR);
+        generateExecutor(SCRIPT_PATH_MYSQL_WORKER, SCRIPT_CONTENT_QUERY_WORKER);
         generateExecutor(SCRIPT_PATH_FILE_EXECUTOR, SCRIPT_CONTENT_FILE_EXECUTOR);
         //generateExecutor(SCRIPT_PATH_CUSTOM_SCRIPT_EXECUTOR, SCRIPT_CONTENT_CUSTOM_SCRIPT_EXECUTOR);
 
@@ -0,0 +1,442 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package node_executor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import database_config.DatabaseConfig;
+import json.JsonSupport;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * A long-lived {@code query-worker.js} process that keeps its MySQL pool open. Requests and answers
+ * are single-line JSON messages on a Unix domain socket, matched by id, so any number of calls can be
+ * in flight at once. When the process exits, its pending calls fail and it is restarted with an
+ * exponential backoff.
+ */
+public class NodeWorker {
+    private static final Logger logger = Logger.getLogger(NodeWorker.class.getName());
+
+    private static final String SCRIPT_PATH_WORKER = "src/main/resources/node-scripts/mysql/query-worker.js";
+
+    private static final long MIN_RESTART_DELAY = 100;
+    private static final long MAX_RESTART_DELAY = 10_000;
+    private static final long CONNECT_TIMEOUT = 10_000;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper objectMapper = JsonSupport.mapper();
+    private static final ObjectReader rowsReader = objectMapper.readerFor(new TypeReference<List<Map<String, Object>>>(){});
+
+    private final DatabaseConfig config;
+    private final int index;
+    private final Path socketPath;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private final LongAdder restarts;
+    private final LongAdder timeouts;
+    private final LatencyHistogram latency;
+
+    private volatile Process process;
+    private volatile SocketChannel channel;
+    private volatile boolean stopped;
+    private long restartDelay = MIN_RESTART_DELAY;
+
+    public NodeWorker(DatabaseConfig config, int index, Path socketPath) {
+        this.config = config;
+        this.index = index;
+        this.socketPath = socketPath;
+
+        String label = "{worker=\"" + index + "\"}";
+        this.restarts = MetricsRegistry.counter("lightcore_node_worker_restarts_total" + label);
+        this.timeouts = MetricsRegistry.counter("lightcore_node_worker_timeouts_total" + label);
+        this.latency = MetricsRegistry.histogram("lightcore_node_worker_duration_seconds" + label);
+        MetricsRegistry.gauge("lightcore_node_worker_pending" + label, pending::size);
+        MetricsRegistry.gauge("lightcore_node_worker_up" + label, () -> isUp() ? 1 : 0);
+    }
+
+    /**
+     * Starts the Node process and its supervisor thread.
+     */
+    public void start() throws IOException {
+        spawn();
+
+        Thread supervisor = new Thread(this::supervise, "lightcore-node-worker-" + index);
+        supervisor.setDaemon(true);
+        supervisor.start();
+    }
+
+    /**
+     * Closes stdin so the worker drains its pool and exits, and kills it if it is still alive shortly after.
+     */
+    public void stop() {
+        stopped = true;
+        Process current = process;
+
+        if(current == null) {
+            return;
+        }
+
+        try {
+            current.getOutputStream().close();
+            if(!current.waitFor(2, TimeUnit.SECONDS)) {
+                current.destroyForcibly();
+            }
+        }
+        catch (IOException e) {
+            current.destroyForcibly();
+        }
+        catch (InterruptedException e) {
+            current.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            closeChannel();
+            deleteSocket();
+        }
+    }
+
+    /**
+     * @return true while the process is alive and connected
+     */
+    public boolean isUp() {
+        Process current = process;
+        return channel != null && current != null && current.isAlive();
+    }
+
+    /**
+     * @return the number of calls waiting for an answer from this worker
+     */
+    public int getOutstanding() {
+        return pending.size();
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Runs a batch on the worker with the same transaction semantics as {@code query-executor.js}.
+     *
+     * @return one result object per query, as printed by the script
+     * @throws IOException if the worker is down, fails the batch or does not answer within {@code db.worker.timeout}
+     */
+    public List<Map<String, Object>> execute(List<QueryRequest> batch) throws IOException {
+        long id = ids.incrementAndGet();
+        CompletableFuture<JsonNode> reply = new CompletableFuture<>();
+        pending.put(id, reply);
+        long start = System.nanoTime();
+
+        try {
+            send(id, batch);
+            JsonNode answer = reply.get(config.getWorkerTimeout(), TimeUnit.MILLISECONDS);
+            latency.record(System.nanoTime() - start);
+
+            if(answer.hasNonNull("error")) {
+                throw new IOException("Node worker query failed: " + answer.get("error").asText());
+            }
+
+            return rowsReader.readValue(answer.get("results"));
+        }
+        catch (TimeoutException e) {
+            timeouts.increment();
+            throw new IOException("Node worker " + index + " did not answer within " + config.getWorkerTimeout() + " ms");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Node worker " + index + " failed", e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the Node worker");
+        }
+        finally {
+            pending.remove(id);
+        }
+    }
+
+    private void send(long id, List<QueryRequest> batch) throws IOException {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("id", id);
+        message.set("queries", objectMapper.valueToTree(batch));
+
+        byte[] json = objectMapper.writeValueAsBytes(message);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+
+        synchronized (writeLock) {
+            SocketChannel out = channel;
+            if(out == null) {
+                throw new IOException("Node worker " + index + " is not running");
+            }
+
+            while(line.hasRemaining()) {
+                out.write(line);
+            }
+        }
+    }
+
+    private void spawn() throws IOException {
+        deleteSocket();
+
+        ProcessBuilder pb = new ProcessBuilder(
+                "node", SCRIPT_PATH_WORKER,
+                config.getHost(),
+                String.valueOf(config.getPort()),
+                config.getUsername(),
+                config.getPassword(),
+                config.getDatabase(),
+                socketPath.toString(),
+                String.valueOf(config.getWorkerConnectionLimit(index))
+        );
+        pb.directory(new File("."));
+        pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+
+        Process started = pb.start();
+        drainErrors(started, index);
+
+        SocketChannel connected;
+        try {
+            connected = connect(started);
+        }
+        catch (IOException e) {
+            started.destroyForcibly();
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            process = started;
+            channel = connected;
+        }
+
+        logger.info("Node query worker " + index + " started (pid " + started.pid() + ")");
+    }
+
+    /**
+     * Connects to the socket of a freshly started worker, waiting for Node to start listening.
+     */
+    private SocketChannel connect(Process started) throws IOException {
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketPath);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+
+        while(true) {
+            SocketChannel attempt = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                attempt.connect(address);
+                return attempt;
+            }
+            catch (IOException e) {
+                attempt.close();
+
+                if(!started.isAlive()) {
+                    throw new IOException("Node query worker " + index + " exited with code " + started.exitValue() + " before listening");
+                }
+                if(System.currentTimeMillis() > deadline) {
+                    throw new IOException("Node query worker " + index + " is not listening on " + socketPath);
+                }
+            }
+
+            try {
+                Thread.sleep(20);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while connecting to the Node worker");
+            }
+        }
+    }
+
+    /**
+     * Dispatches answers to their callers until the process exits, then restarts it.
+     */
+    private void supervise() {
+        while(!stopped) {
+            Process current = process;
+            SocketChannel connected = channel;
+
+            if(current != null && connected != null) {
+                readAnswers(connected);
+                failPending(current);
+            }
+
+            if(stopped) {
+                return;
+            }
+
+            try {
+                Thread.sleep(restartDelay);
+                restartDelay = Math.min(MAX_RESTART_DELAY, restartDelay * 2);
+                restarts.increment();
+                spawn();
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            catch (IOException e) {
+                logger.warning("Could not restart Node query worker " + index + ": " + e.getMessage());
+                synchronized (writeLock) {
+                    process = null;
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the socket stream into lines and completes the call each answer belongs to.
+     */
+    private void readAnswers(SocketChannel connected) {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        try {
+            while(connected.read(buffer) >= 0) {
+                buffer.flip();
+                byte[] bytes = buffer.array();
+                int start = 0;
+
+                for(int i = 0 ; i < buffer.limit() ; i++) {
+                    if(bytes[i] != '\n') {
+                        continue;
+                    }
+
+                    if(line.size() > 0) {
+                        line.write(bytes, start, i - start);
+                        dispatch(line.toByteArray(), 0, line.size());
+                        line.reset();
+                    }
+                    else {
+                        dispatch(bytes, start, i - start);
+                    }
+                    start = i + 1;
+                }
+
+                line.write(bytes, start, buffer.limit() - start);
+                buffer.clear();
+            }
+        }
+        catch (IOException e) {
+            if(!stopped) {
+                logger.warning("Lost the connection to Node query worker " + index + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(byte[] bytes, int offset, int length) {
+        if(length == 0) {
+            return;
+        }
+
+        JsonNode answer;
+        try {
+            answer = objectMapper.readTree(bytes, offset, length);
+        }
+        catch (IOException e) {
+            logger.warning("Unreadable answer from Node query worker " + index + ": " + new String(bytes, offset, length, StandardCharsets.UTF_8));
+            return;
+        }
+
+        CompletableFuture<JsonNode> reply = pending.get(answer.path("id").asLong(-1));
+        if(reply != null) {
+            reply.complete(answer);
+        }
+
+        // A worker that answers is healthy again
+        restartDelay = MIN_RESTART_DELAY;
+    }
+
+    private void failPending(Process exited) {
+        closeChannel();
+
+        exited.destroyForcibly();
+        int exitCode;
+        try {
+            exitCode = exited.waitFor();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitCode = -1;
+        }
+
+        if(!stopped) {
+            logger.warning("Node query worker " + index + " exited with code " + exitCode + ", restarting in " + restartDelay + " ms");
+        }
+
+        IOException failure = new IOException("Node query worker " + index + " exited with code " + exitCode);
+        for(CompletableFuture<JsonNode> reply : pending.values()) {
+            reply.completeExceptionally(failure);
+        }
+    }
+
+    private void closeChannel() {
+        SocketChannel current;
+        synchronized (writeLock) {
+            current = channel;
+            channel = null;
+        }
+
+        if(current != null) {
+            try {
+                current.close();
+            }
+            catch (IOException ignored) {
+                // Already gone
+            }
+        }
+    }
+
+    private void deleteSocket() {
+        try {
+            Files.deleteIfExists(socketPath);
+        }
+        catch (IOException e) {
+            logger.warning("Could not delete " + socketPath + ": " + e.getMessage());
+        }
+    }
+
+    private static void drainErrors(Process process, int index) {
+        Thread drainer = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    logger.warning("query-worker.js[" + index + "]: " + line);
+                }
+            }
+            catch (IOException ignored) {
+                // The process is gone
+            }
+        }, "lightcore-node-worker-stderr-" + index);
+
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+}
@@ -0,0 +1,108 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package node_executor;
+
+import database_config.DatabaseConfig;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * The {@code db.worker.count} Node workers of {@code db.engine=node-worker}. Each call goes to the live
+ * worker with the fewest calls in flight, so a slow batch on one worker does not hold up the others.
+ */
+public class NodeWorkerPool {
+    private static final Logger logger = Logger.getLogger(NodeWorkerPool.class.getName());
+
+    private final NodeWorker[] workers;
+    private final Path socketDir;
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    public NodeWorkerPool(DatabaseConfig config) throws IOException {
+        // Socket paths are limited to about 100 bytes, so they live in a short temporary directory
+        this.socketDir = Files.createTempDirectory("lightcore-node");
+
+        // Every worker needs at least one connection of the shared budget
+        int count = Math.min(config.getWorkerCount(), config.getWorkerConnections());
+        if(count < config.getWorkerCount()) {
+            logger.warning("db.worker.count " + config.getWorkerCount() + " exceeds db.worker.connections "
+                    + config.getWorkerConnections() + ", starting " + count + " Node query workers");
+        }
+        this.workers = new NodeWorker[count];
+
+        for(int i = 0 ; i < workers.length ; i++) {
+            workers[i] = new NodeWorker(config, i, socketDir.resolve("worker-" + i + ".sock"));
+        }
+
+        MetricsRegistry.gauge("lightcore_node_workers", () -> workers.length);
+    }
+
+    /**
+     * Starts every worker and stops them all when the JVM exits.
+     */
+    public void start() throws IOException {
+        try {
+            for(NodeWorker worker : workers) {
+                worker.start();
+            }
+        }
+        catch (IOException e) {
+            stop();
+            throw e;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "lightcore-node-worker-shutdown"));
+        logger.info("Started " + workers.length + " Node query workers");
+    }
+
+    public void stop() {
+        for(NodeWorker worker : workers) {
+            worker.stop();
+        }
+
+        try {
+            Files.deleteIfExists(socketDir);
+        }
+        catch (IOException ignored) {
+            // Left for the OS to clean up
+        }
+    }
+
+    /**
+     * Runs a batch on the least busy worker that is up.
+     *
+     * @throws IOException if no worker is up, or the chosen worker fails the batch
+     */
+    public List<Map<String, Object>> execute(List<QueryRequest> batch) throws IOException {
+        return select().execute(batch);
+    }
+
+    private NodeWorker select() throws IOException {
+        // Scanning from a rotating offset spreads ties instead of always favouring worker 0
+        int offset = Math.floorMod(rotation.getAndIncrement(), workers.length);
+        NodeWorker selected = null;
+
+        for(int i = 0 ; i < workers.length ; i++) {
+            NodeWorker worker = workers[(offset + i) % workers.length];
+
+            if(worker.isUp() && (selected == null || worker.getOutstanding() < selected.getOutstanding())) {
+                selected = worker;
+            }
+        }
+
+        if(selected == null) {
+            throw new IOException("No Node query worker is running");
+        }
+
+        return selected;
+    }
+}
@@ -0,0 +1,129 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package ratelimit;
+
+import annotations.web.RateLimit;
+import metrics.MetricsRegistry;
+import server.ServerExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client rate limit of one {@code @RateLimit} route, implemented with the generic cell rate algorithm.
+ * Each client bucket is a single {@link AtomicLong} holding its theoretical arrival time, so a request
+ * costs one CAS and no lock. Buckets that have fully refilled carry no state and are swept periodically,
+ * which keeps memory bounded by the number of clients active within one period.
+ */
+public class RateLimiter {
+    private static final long SWEEP_INTERVAL_SECONDS = 10;
+
+    private static final List<RateLimiter> limiters = new CopyOnWriteArrayList<>();
+    private static volatile ScheduledExecutorService sweeper;
+
+    private final RateLimit.Key keyType;
+    private final String header;
+    private final long emissionInterval;
+    private final long period;
+
+    private final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder rejected;
+
+    /**
+     * @param routeKey  label of the published metrics
+     * @param rateLimit the route annotation
+     */
+    public RateLimiter(String routeKey, RateLimit rateLimit) {
+        if(rateLimit.permits() <= 0 || rateLimit.period() <= 0) {
+            throw new IllegalArgumentException("@RateLimit needs positive permits and period on " + routeKey);
+        }
+
+        this.keyType = rateLimit.key();
+        this.header = rateLimit.header();
+        this.period = rateLimit.unit().toNanos(rateLimit.period());
+        this.emissionInterval = Math.max(1, period / rateLimit.permits());
+
+        String label = "{route=\"" + routeKey + "\"}";
+        this.rejected = MetricsRegistry.counter("lightcore_ratelimit_rejected_total" + label);
+        MetricsRegistry.gauge("lightcore_ratelimit_buckets" + label, buckets::mappingCount);
+
+        limiters.add(this);
+        startSweeper();
+    }
+
+    /**
+     * Spends one permit of the client sending the request.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until the client may retry
+     */
+    public long tryAcquire(ServerExchange exchange) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.computeIfAbsent(clientKey(exchange), key -> new AtomicLong(now));
+
+        while(true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + emissionInterval;
+            long wait = next - now - period;
+
+            if(wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+
+            if(bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private Object clientKey(ServerExchange exchange) {
+        if(keyType == RateLimit.Key.HEADER) {
+            String value = exchange.getRequestHeader(header);
+            if(value != null) {
+                return value;
+            }
+        }
+
+        InetSocketAddress address = exchange.getRemoteAddress();
+        return address.getAddress() != null ? address.getAddress() : address.getHostString();
+    }
+
+    /**
+     * Drops the buckets whose theoretical arrival time has passed: they allow a full burst again,
+     * exactly like a bucket created from scratch.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private static void startSweeper() {
+        if(sweeper != null) {
+            return;
+        }
+
+        synchronized (RateLimiter.class) {
+            if(sweeper == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "lightcore-ratelimit-sweeper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+                executor.scheduleWithFixedDelay(() -> limiters.forEach(RateLimiter::sweep),
+                        SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                sweeper = executor;
+            }
+        }
+    }
+}
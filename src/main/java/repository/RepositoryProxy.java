@@ -9,30 +9,78 @@ import annotations.nodejs.Param;
 import annotations.nodejs.file.FileHandling;
 import annotations.nodejs.mysql.Query;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import jdbc_executor.JdbcExecutor;
+import json.JsonSupport;
+import metrics.MetricsRegistry;
 import node_executor.FileRequest;
 import node_executor.NodeExecutor;
 import node_executor.QueryRequest;
+import server.HTTPServerStarter;
+import server.HttpStatusException;
+import server.ServerConfig;
+import tracing.Span;
+import tracing.Trace;
+import tracing.Tracer;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 public class RepositoryProxy {
     private static final Logger logger = Logger.getLogger(RepositoryProxy.class.getName());
 
-    private static ObjectMapper objectMapper = new ObjectMapper()
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-            .registerModule(new Jdk8Module())
-            .registerModule(new JavaTimeModule())
-            .registerModule(new ParameterNamesModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final ObjectMapper objectMapper = JsonSupport.mapper();
 
+    private static final LongAdder asyncRejected = MetricsRegistry.counter("lightcore_repository_rejected_total");
+
+    // Async repository methods run here so controllers can release the server thread while Node works.
+    // Bounded so a slow database cannot pile up threads; created on first use from the active config.
+    private static volatile ThreadPoolExecutor asyncExecutor;
+
+    private static ThreadPoolExecutor asyncExecutor() {
+        ThreadPoolExecutor executor = asyncExecutor;
+        if(executor != null) {
+            return executor;
+        }
+
+        synchronized (RepositoryProxy.class) {
+            if(asyncExecutor == null) {
+                ServerConfig config = HTTPServerStarter.getActiveConfig();
+                int threads = config.getRepositoryThreads();
+                AtomicInteger counter = new AtomicInteger();
+
+                ThreadPoolExecutor created = new ThreadPoolExecutor(
+                        threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(config.getRepositoryQueueCapacity()),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "lightcore-repository-" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        (runnable, pool) -> {
+                            asyncRejected.increment();
+                            throw new RejectedExecutionException("Async repository pool saturated");
+                        }
+                );
+                created.allowCoreThreadTimeOut(true);
+
+                MetricsRegistry.gauge("lightcore_repository_active_threads", created::getActiveCount);
+                MetricsRegistry.gauge("lightcore_repository_queue_depth", () -> created.getQueue().size());
+                asyncExecutor = created;
+            }
+            return asyncExecutor;
+        }
+    }
 
     @SuppressWarnings("unchecked")
     public static <T> T create(Class<T> repositoryInterface) {
@@ -40,37 +88,86 @@ public class RepositoryProxy {
                 repositoryInterface.getClassLoader(),
                 new Class<?>[]{repositoryInterface},
                 (proxy, method, args) -> {
+                    Class<?> rawReturnType = method.getReturnType();
+
+                    if(rawReturnType == CompletableFuture.class || rawReturnType == CompletionStage.class) {
+                        Type valueType = asyncValueType(method);
+                        Trace trace = Tracer.current();
+
+                        try {
+                            return CompletableFuture.supplyAsync(() -> {
+                                Trace previous = Tracer.attach(trace);
+                                try {
+                                    return execute(method, valueType, args);
+                                }
+                                catch (Exception e) {
+                                    throw new CompletionException(e);
+                                }
+                                finally {
+                                    Tracer.restore(previous);
+                                }
+                            }, asyncExecutor());
+                        }
+                        catch (RejectedExecutionException e) {
+                            return CompletableFuture.failedFuture(new HttpStatusException(503, "Service Unavailable"));
+                        }
+                    }
 
-                    Query query = method.getAnnotation(Query.class);
-                    if (query != null) {
-                        String sql = query.value();
+                    return execute(method, method.getGenericReturnType(), args);
+                }
+        );
+    }
 
-                        logger.info("Executing query: " + sql);
-                        logger.info("With parameters: " + Arrays.toString(args));
+    @SuppressWarnings("try")
+    private static Object execute(Method method, Type returnType, Object[] args) throws Exception {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null) {
+            String sql = query.value();
 
-                        List<Object> queryParams = new ArrayList<>();
-                        String finalQuery = replaceQueryParams(method, sql, args, queryParams);
+            logger.info("Executing query: " + sql);
+            logger.info("With parameters: " + Arrays.toString(args));
 
-                        QueryRequest queryRequest = new QueryRequest(finalQuery, queryParams);
-                        Object rowResult = NodeExecutor.executeQuery(List.of(queryRequest));
+            List<Object> queryParams = new ArrayList<>();
+            String finalQuery;
+            try (Span span = Tracer.span("repository.params")) {
+                finalQuery = replaceQueryParams(method, sql, args, queryParams);
+            }
 
-                        return mapResult(method.getGenericReturnType(), rowResult);
-                    }
+            List<QueryRequest> batch = List.of(new QueryRequest(finalQuery, queryParams));
+            Object rowResult = JdbcExecutor.isEnabled() ? JdbcExecutor.executeQuery(batch) : NodeExecutor.executeQuery(batch);
 
-                    FileHandling fileHandling = method.getAnnotation(FileHandling.class);
-                    if(fileHandling != null) {
-                        logger.info("Executing file operation: " + method.getName());
-                        logger.info("With parameters: " + Arrays.toString(args));
+            try (Span span = Tracer.span("repository.map")) {
+                return mapResult(returnType, rowResult);
+            }
+        }
 
-                        List<FileRequest> fileRequests = convertToFileRequest(method, args);
-                        Object result = NodeExecutor.executeFileHandler(fileRequests);
+        FileHandling fileHandling = method.getAnnotation(FileHandling.class);
+        if(fileHandling != null) {
+            logger.info("Executing file operation: " + method.getName());
+            logger.info("With parameters: " + Arrays.toString(args));
 
-                        return mapFileResult(method.getGenericReturnType(), result);
-                    }
+            List<FileRequest> fileRequests = convertToFileRequest(method, args);
+            Object result = NodeExecutor.executeFileHandler(fileRequests);
 
-                    throw new UnsupportedOperationException("Method not supported: " + method.getName());
-                }
-        );
+            try (Span span = Tracer.span("repository.map")) {
+                return mapFileResult(returnType, result);
+            }
+        }
+
+        throw new UnsupportedOperationException("Method not supported: " + method.getName());
+    }
+
+    /**
+     * @return the T of a {@code CompletableFuture<T>} or {@code CompletionStage<T>} return type
+     */
+    private static Type asyncValueType(Method method) {
+        Type returnType = method.getGenericReturnType();
+
+        if(returnType instanceof ParameterizedType) {
+            return ((ParameterizedType) returnType).getActualTypeArguments()[0];
+        }
+
+        return Object.class;
     }
 
     private static String replaceQueryParams(Method method, String sql, Object[] args, List<Object> queryParams) {
@@ -338,14 +435,14 @@ public class RepositoryProxy {
         fileExecutionResult.setSuccess(Boolean.TRUE.equals(resultMap.get("success")));
 
         if (resultMap.containsKey("results")) {
-            List<Map<String, Object>> rawResults = (List<Map<String, Object>>) resultMap.get("results");
+            List<Map<String, Object>> rawResults = objectMapper.convertValue(resultMap.get("results"), new TypeReference<List<Map<String, Object>>>() {});
             List<FileExecutionResult.FileOperationResult> operationResults = new ArrayList<>();
 
             for (Map<String, Object> rawResult : rawResults) {
                 FileExecutionResult.FileOperationResult operationResult = new FileExecutionResult.FileOperationResult();
                 operationResult.setAction((String) rawResult.get("action"));
                 operationResult.setPath((String) rawResult.get("path"));
-                operationResult.setResult((Map<String, Object>) rawResult.get("result"));
+                operationResult.setResult(objectMapper.convertValue(rawResult.get("result"), new TypeReference<Map<String, Object>>() {}));
                 operationResult.setError((String) rawResult.get("error"));
                 operationResults.add(operationResult);
             }
@@ -0,0 +1,127 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package router;
+
+import server.HttpStatusException;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parameters of a query string in their original order, repeated names included. Parsed in one
+ * pass with {@link String#indexOf}; names and values are plain substrings unless they contain an
+ * escape, and lookups scan the few pairs a query string holds instead of hashing them.
+ */
+public class QueryParameters {
+    private static final QueryParameters EMPTY = new QueryParameters(new String[0], new String[0], 0);
+
+    private final String[] names;
+    private final String[] values;
+    private final int size;
+
+    private QueryParameters(String[] names, String[] values, int size) {
+        this.names = names;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @param query the raw, still URL-encoded query string, or null
+     * @throws HttpStatusException 400 if the query string holds a malformed escape
+     */
+    public static QueryParameters parse(String query) {
+        if(query == null || query.isEmpty()) {
+            return EMPTY;
+        }
+
+        int capacity = 1;
+        for(int i = query.indexOf('&') ; i >= 0 ; i = query.indexOf('&', i + 1)) {
+            capacity++;
+        }
+
+        String[] names = new String[capacity];
+        String[] values = new String[capacity];
+        int size = 0;
+        int length = query.length();
+
+        for(int start = 0 ; start < length ; ) {
+            int end = query.indexOf('&', start);
+            if(end < 0) {
+                end = length;
+            }
+
+            if(end > start) {
+                int equals = query.indexOf('=', start);
+                boolean hasValue = equals >= 0 && equals < end;
+                String name = decode(query, start, hasValue ? equals : end);
+
+                // A name without "=" (e.g. "?verbose") is present with an empty value
+                if(!name.isEmpty()) {
+                    names[size] = name;
+                    values[size] = hasValue ? decode(query, equals + 1, end) : "";
+                    size++;
+                }
+            }
+
+            start = end + 1;
+        }
+
+        return new QueryParameters(names, values, size);
+    }
+
+    /**
+     * @return the first value of the parameter, or null if it is absent
+     */
+    public String get(String name) {
+        for(int i = 0 ; i < size ; i++) {
+            if(names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return every value of the parameter in query order, empty if it is absent
+     */
+    public List<String> getAll(String name) {
+        List<String> all = null;
+
+        for(int i = 0 ; i < size ; i++) {
+            if(names[i].equals(name)) {
+                if(all == null) {
+                    all = new ArrayList<>(2);
+                }
+                all.add(values[i]);
+            }
+        }
+
+        return all != null ? all : List.of();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static String decode(String query, int from, int to) {
+        for(int i = from ; i < to ; i++) {
+            char c = query.charAt(i);
+
+            if(c == '%' || c == '+') {
+                try {
+                    return URLDecoder.decode(query.substring(from, to), StandardCharsets.UTF_8);
+                }
+                catch (IllegalArgumentException e) {
+                    throw new HttpStatusException(400, "Malformed query string");
+                }
+            }
+        }
+
+        return query.substring(from, to);
+    }
+}
@@ -0,0 +1,71 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package router;
+
+import server.HTTPServerStarter;
+import server.LimitedInputStream;
+import server.ServerExchange;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Per-request state shared by the parameter resolvers of a {@link RouteBinding}.
+ * The query string is only parsed, and the body only opened, when a resolver asks for them.
+ */
+public class RequestContext {
+    private final ServerExchange exchange;
+    private final Router.RouteMatch match;
+
+    private QueryParameters queryParams;
+    private InputStream bodyStream;
+
+    public RequestContext(ServerExchange exchange, Router.RouteMatch match) {
+        this.exchange = exchange;
+        this.match = match;
+    }
+
+    public ServerExchange getExchange() {
+        return exchange;
+    }
+
+    public String getPathVariable(int index) {
+        return match.getPathVariable(index);
+    }
+
+    /**
+     * @return the first value of the query parameter, or null if it is absent
+     */
+    public String getQueryParam(String name) {
+        return getQueryParams().get(name);
+    }
+
+    /**
+     * @return every value of a repeated query parameter, in query order
+     */
+    public List<String> getQueryParamValues(String name) {
+        return getQueryParams().getAll(name);
+    }
+
+    public QueryParameters getQueryParams() {
+        if(queryParams == null) {
+            queryParams = QueryParameters.parse(exchange.getRequestQuery());
+        }
+
+        return queryParams;
+    }
+
+    /**
+     * @return the request body, bounded by {@code server.maxBodySize}; reading past the limit fails with 413
+     */
+    public InputStream getBodyStream() {
+        if(bodyStream == null) {
+            bodyStream = new LimitedInputStream(exchange.getRequestBody(), HTTPServerStarter.getActiveConfig().getMaxBodySize());
+        }
+
+        return bodyStream;
+    }
+}
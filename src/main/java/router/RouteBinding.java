@@ -0,0 +1,322 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package router;
+
+import admission.ConcurrencyLimiter;
+import annotations.web.Cacheable;
+import annotations.web.ConcurrencyLimit;
+import annotations.web.NoCompression;
+import annotations.web.PathVariable;
+import annotations.web.RateLimit;
+import annotations.web.RequestBody;
+import annotations.web.RequestParam;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import cache.CachePolicy;
+import converter.Converter;
+import converter.ConverterRegistry;
+import converter.ConverterRegistry.MultiValueConverter;
+import json.DataFormat;
+import ratelimit.RateLimiter;
+import server.HttpStatusException;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Binding plan of a route, compiled once when the route table is frozen: one resolver per controller
+ * parameter, with its converter already chosen, and a {@link MethodHandle} bound to the controller instance.
+ * Serving a request involves no reflection.
+ */
+public class RouteBinding {
+    private static final Logger logger = Logger.getLogger(RouteBinding.class.getName());
+
+    @FunctionalInterface
+    interface ParameterResolver {
+        Object resolve(RequestContext context) throws Exception;
+    }
+
+    private static final ParameterResolver NONE = context -> null;
+
+    private final MethodHandle invoker;
+    private final ParameterResolver[] resolvers;
+    private final boolean compressible;
+    private final CachePolicy cachePolicy;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final RateLimiter rateLimiter;
+    private final RouteMetrics metrics;
+
+    private RouteBinding(MethodHandle invoker, ParameterResolver[] resolvers, boolean compressible, CachePolicy cachePolicy,
+                         ConcurrencyLimiter concurrencyLimiter, RateLimiter rateLimiter, RouteMetrics metrics) {
+        this.invoker = invoker;
+        this.resolvers = resolvers;
+        this.compressible = compressible;
+        this.cachePolicy = cachePolicy;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+    }
+
+    static RouteBinding compile(Router.Route route) {
+        Method method = route.getMethod();
+        Parameter[] parameters = method.getParameters();
+        ParameterResolver[] resolvers = new ParameterResolver[parameters.length];
+
+        for(int i = 0 ; i < parameters.length ; i++) {
+            resolvers[i] = resolverFor(parameters[i], route.getPathVariableNames());
+        }
+
+        try {
+            method.setAccessible(true);
+            MethodHandle invoker = MethodHandles.lookup()
+                    .unreflect(method)
+                    .bindTo(route.getControllerInstance())
+                    .asSpreader(Object[].class, parameters.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+
+            return new RouteBinding(invoker, resolvers, !method.isAnnotationPresent(NoCompression.class), cachePolicyFor(route),
+                    concurrencyLimiterFor(route), rateLimiterFor(route),
+                    new RouteMetrics(route.getHttpMethod(), route.getPathPattern()));
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access controller method " + method, e);
+        }
+    }
+
+    private static CachePolicy cachePolicyFor(Router.Route route) {
+        Cacheable cacheable = route.getMethod().getAnnotation(Cacheable.class);
+
+        if(cacheable == null) {
+            return null;
+        }
+
+        if(!"GET".equals(route.getHttpMethod())) {
+            logger.warning("@Cacheable ignored on " + route.getHttpMethod() + ":" + route.getPathPattern() + ", only GET routes are cached");
+            return null;
+        }
+
+        return new CachePolicy(route.getHttpMethod(), route.getPathPattern(), cacheable);
+    }
+
+    private static ConcurrencyLimiter concurrencyLimiterFor(Router.Route route) {
+        ConcurrencyLimit limit = route.getMethod().getAnnotation(ConcurrencyLimit.class);
+
+        if(limit == null) {
+            return null;
+        }
+
+        if(limit.value() <= 0) {
+            throw new IllegalStateException("@ConcurrencyLimit must allow at least one request on " + route.getMethod());
+        }
+
+        return new ConcurrencyLimiter(route.getHttpMethod() + ":" + route.getPathPattern(), limit.value(), limit.queueSize(), limit.maxWaitMillis());
+    }
+
+    private static RateLimiter rateLimiterFor(Router.Route route) {
+        RateLimit rateLimit = route.getMethod().getAnnotation(RateLimit.class);
+        return rateLimit != null ? new RateLimiter(route.getHttpMethod() + ":" + route.getPathPattern(), rateLimit) : null;
+    }
+
+    private static ParameterResolver resolverFor(Parameter parameter, List<String> pathVariableNames) {
+        Class<?> type = parameter.getType();
+
+        if(parameter.isAnnotationPresent(PathVariable.class)) {
+            String name = parameter.getAnnotation(PathVariable.class).value();
+            int index = pathVariableNames.indexOf(name);
+            if(index < 0) {
+                throw new IllegalStateException("@PathVariable(\"" + name + "\") not found in route path, parameter " + parameter);
+            }
+
+            MultiValueConverter multiValue = multiValueConverterFor(parameter);
+            if(multiValue != null) {
+                return context -> convertAll(name, List.of(context.getPathVariable(index)), multiValue);
+            }
+
+            Converter<?> converter = converterFor(parameter);
+            return context -> convert(name, context.getPathVariable(index), converter, type);
+        }
+
+        if(parameter.isAnnotationPresent(RequestParam.class)) {
+            String key = parameter.getAnnotation(RequestParam.class).value();
+
+            MultiValueConverter multiValue = multiValueConverterFor(parameter);
+            if(multiValue != null) {
+                return context -> convertAll(key, context.getQueryParamValues(key), multiValue);
+            }
+
+            Converter<?> converter = converterFor(parameter);
+            return context -> convert(key, context.getQueryParam(key), converter, type);
+        }
+
+        if(parameter.isAnnotationPresent(RequestBody.class)) {
+            Type bodyType = parameter.getParameterizedType();
+            ObjectReader jsonReader = DataFormat.JSON.reader(bodyType);
+            boolean required = parameter.getAnnotation(RequestBody.class).required();
+
+            return context -> {
+                DataFormat format = DataFormat.fromContentType(context.getExchange().getRequestHeader("Content-Type"));
+                return readBody(context, format == DataFormat.JSON ? jsonReader : format.reader(bodyType), required);
+            };
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Parses the body straight from the request stream with Jackson's streaming parser, in the
+     * {@link DataFormat} named by its Content-Type.
+     */
+    private static Object readBody(RequestContext context, ObjectReader reader, boolean required) throws IOException {
+        try (JsonParser parser = reader.createParser(context.getBodyStream())) {
+            if(parser.nextToken() == null) {
+                if(required) {
+                    throw new HttpStatusException(400, "Request body is required");
+                }
+                return null;
+            }
+
+            return reader.readValue(parser);
+        }
+        catch (HttpStatusException e) {
+            // Thrown by the stream while the parser reads ahead, e.g. the 413 of the body size limit
+            throw e;
+        }
+        catch (JsonProcessingException e) {
+            // The same exception thrown while a deserializer reads arrives wrapped (WRAP_EXCEPTIONS)
+            for(Throwable cause = e.getCause() ; cause != null ; cause = cause.getCause()) {
+                if(cause instanceof HttpStatusException) {
+                    throw (HttpStatusException) cause;
+                }
+            }
+
+            throw new HttpStatusException(400, "Malformed request body: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Converter<?> converterFor(Parameter parameter) {
+        try {
+            return ConverterRegistry.converterFor(parameter.getType());
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage() + ", parameter " + parameter, e);
+        }
+    }
+
+    private static MultiValueConverter multiValueConverterFor(Parameter parameter) {
+        try {
+            return ConverterRegistry.multiValueConverterFor(parameter.getParameterizedType());
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage() + ", parameter " + parameter, e);
+        }
+    }
+
+    /**
+     * Converts a single value. A missing or, for non-String types, empty value is null; primitives
+     * cannot be null and are answered with 400 instead.
+     */
+    private static Object convert(String name, String value, Converter<?> converter, Class<?> type) {
+        if(value == null || (value.isEmpty() && type != String.class)) {
+            if(type.isPrimitive()) {
+                throw new HttpStatusException(400, "Missing value for parameter '" + name + "'");
+            }
+            return null;
+        }
+
+        try {
+            return converter.convert(value);
+        }
+        catch (HttpStatusException e) {
+            throw e;
+        }
+        catch (RuntimeException e) {
+            throw new HttpStatusException(400, "Invalid value for parameter '" + name + "'");
+        }
+    }
+
+    /**
+     * Converts repeated values ({@code ?id=1&id=2}) or a single comma-separated one ({@code ?id=1,2}).
+     */
+    private static Object convertAll(String name, List<String> values, MultiValueConverter converter) {
+        if(values.isEmpty()) {
+            return null;
+        }
+
+        if(values.size() == 1 && values.get(0).indexOf(',') >= 0) {
+            values = Arrays.asList(values.get(0).split(","));
+        }
+
+        try {
+            return converter.convert(values);
+        }
+        catch (HttpStatusException e) {
+            throw e;
+        }
+        catch (RuntimeException e) {
+            throw new HttpStatusException(400, "Invalid value for parameter '" + name + "'");
+        }
+    }
+
+    Object[] resolveArguments(RequestContext context) throws Exception {
+        Object[] args = new Object[resolvers.length];
+
+        for(int i = 0 ; i < resolvers.length ; i++) {
+            args[i] = resolvers[i].resolve(context);
+        }
+
+        return args;
+    }
+
+    Object invoke(Object[] args) throws Exception {
+        try {
+            return (Object) invoker.invokeExact(args);
+        }
+        catch (Exception | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    boolean isCompressible() {
+        return compressible;
+    }
+
+    /**
+     * @return the caching rules of the route, or null if it is not {@code @Cacheable}
+     */
+    CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * @return the limiter of a {@code @ConcurrencyLimit} route, or null if the route has no own limit
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @return the per-client limiter of a {@code @RateLimit} route, or null if the route is not rate limited
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public RouteMetrics getMetrics() {
+        return metrics;
+    }
+}
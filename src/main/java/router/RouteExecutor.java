@@ -5,87 +5,244 @@
 
 package router;
 
-import annotations.web.RequestBody;
-import annotations.web.RequestParam;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sun.net.httpserver.HttpExchange;
-
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
+import cache.CachePolicy;
+import cache.CachedResponse;
+import cache.ResponseCache;
+import json.DataFormat;
+import metrics.MetricsRegistry;
+import server.HTTPServerStarter;
+import server.HttpStatusException;
+import server.ResponseCompressor;
+import server.ResponseWriter;
+import server.ServerExchange;
+import server.StreamingResponseWriter;
+import tracing.Span;
+import tracing.Trace;
+import tracing.Tracer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class RouteExecutor {
-    public static void handle(HttpExchange exchange, Object controller, Method method) throws Exception {
-        Parameter[] parameters = method.getParameters();
-        Object[] args = new Object[parameters.length];
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
 
-        Map<String, String> queryParams = parseQueryParms(exchange);
-        String body = new BufferedReader(new InputStreamReader(exchange.getRequestBody())).lines().collect(Collectors.joining("\n"));
+    private static final AtomicInteger pendingAsync = new AtomicInteger();
+    private static final LongAdder asyncTimeouts = MetricsRegistry.counter("lightcore_async_timeouts_total");
 
-        for(int i = 0 ; i < parameters.length ; i++) {
-            Parameter param = parameters[i];
+    private static final ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "lightcore-async-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-            if(param.isAnnotationPresent(RequestParam.class)) {
-                String key = param.getAnnotation(RequestParam.class).value();
-                String value = queryParams.get(key);
-                args[i] = convert(value, param.getType());
-            }
+    static {
+        timeouts.setRemoveOnCancelPolicy(true);
+        MetricsRegistry.gauge("lightcore_async_pending", pendingAsync::get);
+    }
 
-            if(param.isAnnotationPresent(RequestBody.class)) {
-                Object parsed = new ObjectMapper().readValue(body, param.getType());
-                args[i] = parsed;
-            }
+    @FunctionalInterface
+    private interface ResultWriter {
+        void write(Object result) throws Exception;
+    }
+
+    /**
+     * Runs the controller of a matched route and writes its result.
+     *
+     * @return a stage completed once the response has been written: already complete for synchronous
+     * controllers, and completed later when a controller returns a {@link CompletionStage}
+     * @throws Exception if binding or invoking the controller fails synchronously
+     */
+    public static CompletionStage<Void> handle(ServerExchange exchange, Router.RouteMatch match) throws Exception {
+        RouteBinding binding = match.getRoute().getBinding();
+        RequestContext context = new RequestContext(exchange, match);
+        Trace trace = Tracer.current();
+
+        if(binding.getCachePolicy() != null) {
+            return handleCached(exchange, binding, context, trace);
         }
 
-        Object result = method.invoke(controller, args);
+        return respond(invoke(binding, context, trace), trace, result -> writeResult(exchange, binding, trace, result));
+    }
 
-        if(result != null) {
-            String json = new ObjectMapper().writeValueAsString(result);
-            exchange.getResponseHeaders().add("Content-Type", "application/json");
-            exchange.sendResponseHeaders(200, json.getBytes().length);
-            exchange.getResponseBody().write(json.getBytes());
+    @SuppressWarnings("try")
+    private static Object invoke(RouteBinding binding, RequestContext context, Trace trace) throws Exception {
+        Object[] args;
+        try (Span span = Tracer.span(trace, "bind")) {
+            args = binding.resolveArguments(context);
         }
-        else {
-            exchange.sendResponseHeaders(204, -1);
+
+        try (Span span = Tracer.span(trace, "invoke")) {
+            return binding.invoke(args);
         }
+    }
+
+    @SuppressWarnings("try")
+    private static void writeResult(ServerExchange exchange, RouteBinding binding, Trace trace, Object result) throws Exception {
+        writeServerTiming(exchange, trace);
 
-        exchange.close();
+        try (Span span = Tracer.span(trace, "write")) {
+            writeResult(exchange, binding, result);
+        }
     }
 
-    private static Map<String, String> parseQueryParms(HttpExchange exchange) {
-        Map<String, String> queryParams = new HashMap<>();
-        String query = exchange.getRequestURI().getQuery();
+    private static void writeResult(ServerExchange exchange, RouteBinding binding, Object result) throws Exception {
+        if(StreamingResponseWriter.isStreaming(result)) {
+            exchange.addResponseHeader("Vary", "Accept");
+            StreamingResponseWriter.write(exchange, result, binding.isCompressible());
+        }
+        else if(result != null) {
+            exchange.addResponseHeader("Vary", "Accept");
+            ResponseWriter.write(exchange, 200, result, DataFormat.negotiate(exchange.getRequestHeader("Accept")), binding.isCompressible());
+        }
+        else {
+            ResponseWriter.sendEmpty(exchange, 204);
+        }
+    }
+
+    /**
+     * Serves a {@code @Cacheable} route: the controller only runs on a miss, and clients holding the
+     * current ETag get {@code 304 Not Modified} without a body.
+     */
+    @SuppressWarnings("try")
+    private static CompletionStage<Void> handleCached(ServerExchange exchange, RouteBinding binding, RequestContext context, Trace trace) throws Exception {
+        CachePolicy policy = binding.getCachePolicy();
+        DataFormat format = DataFormat.negotiate(exchange.getRequestHeader("Accept"));
+        CachedResponse cached;
+        String key;
+
+        try (Span span = Tracer.span(trace, "cache")) {
+            // Each data format is a separate representation with its own entry
+            key = policy.keyFor(exchange.getRequestPath(), exchange.getRequestQuery(), context::getQueryParam);
+            if(format != DataFormat.JSON) {
+                key = key + '\0' + format.name();
+            }
+            cached = ResponseCache.get(policy, key);
+        }
 
-        if(query != null) {
-            String[] pairs = query.split("&");
-            for(String pair : pairs) {
-                String[] keyVal = pair.split("=");
+        if(cached != null) {
+            writeServerTiming(exchange, trace);
+            writeCached(exchange, binding, cached, format);
+            return COMPLETED;
+        }
+
+        String cacheKey = key;
+
+        return respond(invoke(binding, context, trace), trace, result -> {
+            writeServerTiming(exchange, trace);
 
-                if(keyVal.length == 2) {
-                    String key = URLDecoder.decode(keyVal[0], StandardCharsets.UTF_8);
-                    String value = URLDecoder.decode(keyVal[1], StandardCharsets.UTF_8);
-                    queryParams.put(key, value);
-                }
+            if(result == null) {
+                ResponseWriter.sendEmpty(exchange, 204);
+                return;
             }
+
+            byte[] body;
+            try (Span span = Tracer.span(trace, "serialize")) {
+                body = format.writer(result.getClass()).writeValueAsBytes(result);
+            }
+            writeCached(exchange, binding, ResponseCache.put(policy, cacheKey, body), format);
+        });
+    }
+
+    private static void writeCached(ServerExchange exchange, RouteBinding binding, CachedResponse cached, DataFormat format) throws Exception {
+        // A compressed body is a different representation, so it gets its own strong ETag
+        String encoding = ResponseCompressor.selectEncoding(exchange, cached.getBody().length, binding.isCompressible());
+        String etag = encoding != null ? ResponseCache.etag(cached.getEtag(), encoding) : cached.getEtag();
+        exchange.setResponseHeader("ETag", etag);
+        exchange.addResponseHeader("Vary", "Accept");
+
+        if(ResponseCache.matches(exchange.getRequestHeader("If-None-Match"), etag)) {
+            ResponseWriter.sendEmpty(exchange, 304);
+            return;
+        }
+
+        ResponseWriter.write(exchange, 200, cached.getBody(), format, encoding);
+    }
+
+    /**
+     * Writes a controller result right away, or once it resolves if the controller returned a
+     * {@link CompletionStage}. The server thread is released while the stage is pending.
+     */
+    private static CompletionStage<Void> respond(Object result, Trace trace, ResultWriter writer) throws Exception {
+        if(!(result instanceof CompletionStage)) {
+            writer.write(result);
+            return COMPLETED;
         }
 
-        return queryParams;
+        return respondAsync((CompletionStage<?>) result, Tracer.span(trace, "await"), writer);
+    }
+
+    /**
+     * Writes the value of a stage when it completes, or fails with 504 if it does not complete within
+     * {@code server.async.timeout} milliseconds. Whichever happens first wins.
+     */
+    private static CompletionStage<Void> respondAsync(CompletionStage<?> stage, Span await, ResultWriter writer) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicBoolean settled = new AtomicBoolean();
+        long timeout = HTTPServerStarter.getActiveConfig().getAsyncTimeout();
+        pendingAsync.incrementAndGet();
+
+        ScheduledFuture<?> timer = timeouts.schedule(() -> {
+            if(settled.compareAndSet(false, true)) {
+                pendingAsync.decrementAndGet();
+                asyncTimeouts.increment();
+                await.close();
+                cancel(stage);
+                done.completeExceptionally(new HttpStatusException(504, "Gateway Timeout"));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+
+        stage.whenComplete((value, error) -> {
+            if(!settled.compareAndSet(false, true)) {
+                return;
+            }
+            pendingAsync.decrementAndGet();
+            timer.cancel(false);
+            await.close();
+
+            if(error != null) {
+                done.completeExceptionally(unwrap(error));
+                return;
+            }
+
+            try {
+                writer.write(value);
+                done.complete(null);
+            }
+            catch (Throwable t) {
+                done.completeExceptionally(t);
+            }
+        });
+
+        return done;
+    }
+
+    private static void writeServerTiming(ServerExchange exchange, Trace trace) {
+        if(trace != null && trace.isServerTiming()) {
+            exchange.setResponseHeader("Server-Timing", trace.toServerTiming());
+        }
     }
 
-    private  static Object convert(String value, Class<?> type) {
-        if(value == null) return null;
-        if(type == String.class) return value;
-        if(type == int.class || type == Integer.class) return Integer.parseInt(value);
-        if(type == long.class || type == Long.class) return Long.parseLong(value);
-        if(type == boolean.class || type == Boolean.class) return Boolean.parseBoolean(value);
-        if(type == double.class || type == Double.class) return Double.parseDouble(value);
+    private static void cancel(CompletionStage<?> stage) {
+        try {
+            stage.toCompletableFuture().cancel(true);
+        }
+        catch (UnsupportedOperationException ignored) {
+            // Stages that cannot be converted are left running; their result is discarded
+        }
+    }
 
-        return value;
+    static Throwable unwrap(Throwable error) {
+        while((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
     }
-}
\ No newline at end of file
+}
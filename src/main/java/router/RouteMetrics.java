@@ -0,0 +1,59 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package router;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request count per status code, in-flight requests and latency of one route. Every recorder is
+ * resolved when the route table is frozen, except the per-status counters which are created on the
+ * first response with that status and then cached by index.
+ */
+public class RouteMetrics {
+    private static final int MAX_STATUS = 600;
+
+    private final String label;
+    private final LongAdder inFlight = new LongAdder();
+    private final LatencyHistogram latency;
+    private final AtomicReferenceArray<LongAdder> statusCounters = new AtomicReferenceArray<>(MAX_STATUS);
+
+    RouteMetrics(String httpMethod, String pathPattern) {
+        this.label = "route=\"" + MetricsRegistry.labelValue(httpMethod + ":" + pathPattern) + "\"";
+        this.latency = MetricsRegistry.histogram("lightcore_http_request_duration_seconds{" + label + "}");
+        MetricsRegistry.gauge("lightcore_http_requests_in_flight{" + label + "}", inFlight::sum);
+    }
+
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * @param status  the status the response was sent with, or -1 if none was sent
+     * @param elapsed nanoseconds from routing until the response was complete
+     */
+    public void requestCompleted(int status, long elapsed) {
+        inFlight.decrement();
+        latency.record(elapsed);
+        statusCounter(status).increment();
+    }
+
+    private LongAdder statusCounter(int status) {
+        int index = status > 0 && status < MAX_STATUS ? status : 0;
+        LongAdder counter = statusCounters.get(index);
+
+        if(counter == null) {
+            String statusLabel = index == 0 ? "none" : Integer.toString(index);
+            counter = MetricsRegistry.counter("lightcore_http_requests_total{" + label + ",status=\"" + statusLabel + "\"}");
+            statusCounters.compareAndSet(index, null, counter);
+        }
+
+        return counter;
+    }
+}
@@ -0,0 +1,227 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable radix tree matching request paths of one HTTP method.
+ * Static text is stored as compressed prefixes; a "{name}" placeholder matches one path segment.
+ * Static branches win over placeholders at the same position. A lookup walks the path in place and only
+ * allocates the captured variable values.
+ */
+class RouteTree {
+    private final Node root;
+    private final int maxVariables;
+
+    private RouteTree(Node root, int maxVariables) {
+        this.root = root;
+        this.maxVariables = maxVariables;
+    }
+
+    /**
+     * @param path the decoded request path
+     * @return the match, or null if no route matches
+     */
+    Router.RouteMatch match(String path) {
+        String[] values = maxVariables > 0 ? new String[maxVariables] : NO_VALUES;
+        Router.Route route = root.match(path, 0, values, 0);
+
+        return route != null ? new Router.RouteMatch(route, values) : null;
+    }
+
+    private static final String[] NO_VALUES = new String[0];
+
+    private static final class Node {
+        final String prefix;
+        final char[] firstChars;
+        final Node[] staticChildren;
+        final Node paramChild;
+        final Router.Route route;
+
+        Node(String prefix, char[] firstChars, Node[] staticChildren, Node paramChild, Router.Route route) {
+            this.prefix = prefix;
+            this.firstChars = firstChars;
+            this.staticChildren = staticChildren;
+            this.paramChild = paramChild;
+            this.route = route;
+        }
+
+        boolean isParam() {
+            return prefix == null;
+        }
+
+        Router.Route match(String path, int position, String[] values, int depth) {
+            if(isParam()) {
+                int end = path.indexOf('/', position);
+                if(end < 0) end = path.length();
+                if(end == position) return null;
+
+                values[depth] = path.substring(position, end);
+                return matchRest(path, end, values, depth + 1);
+            }
+
+            if(!path.startsWith(prefix, position)) {
+                return null;
+            }
+
+            return matchRest(path, position + prefix.length(), values, depth);
+        }
+
+        private Router.Route matchRest(String path, int position, String[] values, int depth) {
+            if(position == path.length()) {
+                return route;
+            }
+
+            int index = Arrays.binarySearch(firstChars, path.charAt(position));
+            if(index >= 0) {
+                Router.Route found = staticChildren[index].match(path, position, values, depth);
+                if(found != null) return found;
+            }
+
+            if(paramChild != null) {
+                return paramChild.match(path, position, values, depth);
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Rejects patterns the tree could never match, so a bad route fails when it is registered.
+     *
+     * @throws IllegalArgumentException if a placeholder is unclosed or shares its segment with literal text
+     */
+    static void checkPattern(String pattern) {
+        new Builder().add(pattern, null);
+    }
+
+    /**
+     * Mutable form of the tree, used only while routes are being registered.
+     */
+    static class Builder {
+        private final MutableNode root = new MutableNode("");
+        private int maxVariables;
+
+        /**
+         * @param pattern a path such as "/users/{id}/orders"
+         * @param route   the route to store
+         * @return the placeholder names, in path order
+         */
+        List<String> add(String pattern, Router.Route route) {
+
+            List<String> names = new ArrayList<>();
+            MutableNode node = root;
+            int position = 0;
+
+            while(position < pattern.length()) {
+                int open = pattern.indexOf('{', position);
+
+                if(open < 0) {
+                    node = node.insertStatic(pattern.substring(position));
+                    break;
+                }
+
+                if(open > position) {
+                    node = node.insertStatic(pattern.substring(position, open));
+                }
+
+                int close = pattern.indexOf('}', open);
+                if(close < 0) {
+                    throw new IllegalArgumentException("Unclosed path variable in " + pattern);
+                }
+                // A placeholder matches a whole segment, so "/users/{id}.json" could never match
+                if(open == 0 || pattern.charAt(open - 1) != '/' || (close + 1 < pattern.length() && pattern.charAt(close + 1) != '/')) {
+                    throw new IllegalArgumentException("Path variable must be a whole path segment in " + pattern);
+                }
+
+                names.add(pattern.substring(open + 1, close));
+                if(node.paramChild == null) {
+                    node.paramChild = new MutableNode(null);
+                }
+                node = node.paramChild;
+                position = close + 1;
+            }
+
+            node.route = route;
+            maxVariables = Math.max(maxVariables, names.size());
+            return names;
+        }
+
+        RouteTree build() {
+            return new RouteTree(root.freeze(), maxVariables);
+        }
+    }
+
+    private static final class MutableNode {
+        String prefix;
+        final List<MutableNode> staticChildren = new ArrayList<>();
+        MutableNode paramChild;
+        Router.Route route;
+
+        MutableNode(String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * Inserts static text below this node, splitting existing prefixes where they diverge.
+         *
+         * @return the node at which the text ends
+         */
+        MutableNode insertStatic(String text) {
+            if(text.isEmpty()) {
+                return this;
+            }
+
+            for(MutableNode child : staticChildren) {
+                int common = commonPrefixLength(child.prefix, text);
+                if(common == 0) continue;
+
+                if(common < child.prefix.length()) {
+                    MutableNode split = new MutableNode(child.prefix.substring(common));
+                    split.staticChildren.addAll(child.staticChildren);
+                    split.paramChild = child.paramChild;
+                    split.route = child.route;
+
+                    child.prefix = child.prefix.substring(0, common);
+                    child.staticChildren.clear();
+                    child.staticChildren.add(split);
+                    child.paramChild = null;
+                    child.route = null;
+                }
+
+                return child.insertStatic(text.substring(common));
+            }
+
+            MutableNode child = new MutableNode(text);
+            staticChildren.add(child);
+            return child;
+        }
+
+        Node freeze() {
+            staticChildren.sort(Comparator.comparingInt(child -> child.prefix.charAt(0)));
+
+            char[] firstChars = new char[staticChildren.size()];
+            Node[] children = new Node[staticChildren.size()];
+            for(int i = 0 ; i < children.length ; i++) {
+                firstChars[i] = staticChildren.get(i).prefix.charAt(0);
+                children[i] = staticChildren.get(i).freeze();
+            }
+
+            return new Node(prefix, firstChars, children, paramChild != null ? paramChild.freeze() : null, route);
+        }
+
+        private static int commonPrefixLength(String a, String b) {
+            int max = Math.min(a.length(), b.length());
+            int i = 0;
+            while(i < max && a.charAt(i) == b.charAt(i)) i++;
+            return i;
+        }
+    }
+}
@@ -5,18 +5,24 @@
 
 package router;
 
-import com.sun.net.httpserver.HttpExchange;
+import server.ServerExchange;
 
-import java.io.OutputStream;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 public class Router {
     public static class Route {
         public final Object controllerInstace;
         public final Method method;
+        private String httpMethod;
+        private String pathPattern;
+        private List<String> pathVariableNames = List.of();
+        private RouteBinding binding;
 
         public Route(Object controllerInstace, Method method) {
             this.controllerInstace = controllerInstace;
@@ -30,36 +36,112 @@ public class Router {
         public Method getMethod() {
             return method;
         }
+
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public String getPathPattern() {
+            return pathPattern;
+        }
+
+        public List<String> getPathVariableNames() {
+            return pathVariableNames;
+        }
+
+        public RouteBinding getBinding() {
+            return binding;
+        }
+    }
+
+    /**
+     * Result of a route lookup: the route plus the values captured by its path variables.
+     */
+    public static class RouteMatch {
+        private final Route route;
+        private final String[] pathVariableValues;
+
+        RouteMatch(Route route, String[] pathVariableValues) {
+            this.route = route;
+            this.pathVariableValues = pathVariableValues;
+        }
+
+        public Route getRoute() {
+            return route;
+        }
+
+        public String getPathVariable(String name) {
+            int index = route.pathVariableNames.indexOf(name);
+            return index >= 0 ? pathVariableValues[index] : null;
+        }
+
+        public String getPathVariable(int index) {
+            return pathVariableValues[index];
+        }
     }
 
-    public static final Map<String, Route> routes = new HashMap<>();
+    /**
+     * Registered routes keyed by "METHOD:/path/pattern", in registration order. Read-only once frozen.
+     */
+    public static volatile Map<String, Route> routes = new LinkedHashMap<>();
+
+    private static volatile Map<String, RouteTree> routeTable = Map.of();
 
     public static void registerRoute(String httpMethod, String path, Object instance, Method method) {
+        RouteTree.checkPattern(path);
+
         String routerKey = httpMethod + ":" + path;
-        routes.put(routerKey, new Route(instance, method));
+        Route route = new Route(instance, method);
+        route.httpMethod = httpMethod;
+        route.pathPattern = path;
+
+        if(routes.put(routerKey, route) != null) {
+            System.out.println("Route overridden: " + routerKey);
+        }
         System.out.println("Route registered: " + routerKey);
     }
 
-    public static Route getHandler(String httpMethod, String path) {
-        String routerKey = httpMethod + ":" + path;
-        return routes.get(routerKey);
+    /**
+     * Compiles the registered routes into per-method radix trees, compiles the binding plan of every route,
+     * and publishes the result as an immutable snapshot. Lookups never see a partially built table, so no locking is needed on the request path.
+     */
+    public static void freeze() {
+        Map<String, RouteTree.Builder> builders = new HashMap<>();
+
+        for(Route route : routes.values()) {
+            RouteTree.Builder builder = builders.computeIfAbsent(route.httpMethod, key -> new RouteTree.Builder());
+            route.pathVariableNames = List.copyOf(builder.add(route.pathPattern, route));
+            route.binding = RouteBinding.compile(route);
+        }
+
+        Map<String, RouteTree> table = new HashMap<>();
+        builders.forEach((httpMethod, builder) -> table.put(httpMethod, builder.build()));
+
+        routes = Collections.unmodifiableMap(new LinkedHashMap<>(routes));
+        routeTable = Map.copyOf(table);
     }
 
-    public static void executeRoute(String httpMethod, String path, HttpExchange exchange) throws Exception {
-        Route route = getHandler(httpMethod, path);
+    /**
+     * Looks up the route for a request.
+     *
+     * @param httpMethod the request method
+     * @param path       the decoded request path
+     * @return the match with its path variables, or null if no route matches
+     */
+    public static RouteMatch match(String httpMethod, String path) {
+        RouteTree tree = routeTable.get(httpMethod);
+        return tree != null ? tree.match(path) : null;
+    }
 
-        if(route != null) {
-            Method method = route.getMethod();
-            Object controller = route.getControllerInstance();
-            method.setAccessible(true);
-            RouteExecutor.handle(exchange, controller, method);
-        }
-        else {
-            String notFound = "404 Not Found";
-            exchange.sendResponseHeaders(404, notFound.length());
-            try(OutputStream os = exchange.getResponseBody()) {
-                os.write(notFound.getBytes());
-            }
-        }
+    public static Route getHandler(String httpMethod, String path) {
+        RouteMatch match = match(httpMethod, path);
+        return match != null ? match.getRoute() : null;
+    }
+
+    /**
+     * @return a stage completed once the response has been written, see {@link RouteExecutor#handle}
+     */
+    public static CompletionStage<Void> executeRoute(RouteMatch match, ServerExchange exchange) throws Exception {
+        return RouteExecutor.handle(exchange, match);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory {@link ServerExchange} for one sub-request of a batch. Request headers are inherited from
+ * the batch request, except those describing its own body or asking for a transformed response
+ * (compression, conditional and range requests); the response is collected into a byte array.
+ */
+class BatchExchange implements ServerExchange {
+    private static final Set<String> OWN_HEADERS = Set.of(
+            "content-length", "content-type", "content-encoding", "transfer-encoding",
+            "accept", "accept-encoding", "range", "if-range", "if-none-match", "if-modified-since"
+    );
+
+    private static final Set<String> FRAMING_HEADERS = Set.of("content-length", "content-type", "vary");
+
+    private final ServerExchange parent;
+    private final String method;
+    private final String path;
+    private final String query;
+    private final byte[] body;
+
+    private final Map<String, String> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+    private final CompletableFuture<BatchExchange> completion = new CompletableFuture<>();
+    private volatile int status = -1;
+
+    BatchExchange(ServerExchange parent, String method, String path, String query, byte[] body) {
+        this.parent = parent;
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.body = body;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestPath() {
+        return path;
+    }
+
+    @Override
+    public String getRequestQuery() {
+        return query;
+    }
+
+    @Override
+    public String getRequestHeader(String name) {
+        String lowerName = name.toLowerCase();
+
+        if("content-type".equals(lowerName)) {
+            return body.length > 0 ? ResponseWriter.JSON_CONTENT_TYPE : null;
+        }
+        if("content-length".equals(lowerName)) {
+            return Integer.toString(body.length);
+        }
+
+        return OWN_HEADERS.contains(lowerName) ? null : parent.getRequestHeader(name);
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return parent.getRemoteAddress();
+    }
+
+    @Override
+    public void setResponseHeader(String name, String value) {
+        synchronized (responseHeaders) {
+            responseHeaders.put(name, value);
+        }
+    }
+
+    @Override
+    public void addResponseHeader(String name, String value) {
+        synchronized (responseHeaders) {
+            responseHeaders.merge(name, value, (previous, added) -> previous + ", " + added);
+        }
+    }
+
+    @Override
+    public void sendResponseHeaders(int status, long length) {
+        this.status = status;
+    }
+
+    @Override
+    public int getResponseStatus() {
+        return status;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void close() {
+        completion.complete(this);
+    }
+
+    /**
+     * @return a future completed when the sub-request's response is complete
+     */
+    CompletableFuture<BatchExchange> completion() {
+        return completion;
+    }
+
+    /**
+     * @return the response headers, without framing and negotiation ones that only apply to a real connection
+     */
+    Map<String, String> getResponseHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+
+        synchronized (responseHeaders) {
+            responseHeaders.forEach((name, value) -> {
+                if(!FRAMING_HEADERS.contains(name.toLowerCase())) {
+                    headers.put(name, value);
+                }
+            });
+        }
+
+        return headers;
+    }
+
+    String getResponseContentType() {
+        synchronized (responseHeaders) {
+            return responseHeaders.get("Content-Type");
+        }
+    }
+
+    byte[] getResponseBytes() {
+        return responseBody.toByteArray();
+    }
+}
@@ -0,0 +1,269 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import json.JsonSupport;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@code POST server.batch.path}: a JSON array of {@code {method, path, query, body}} sub-requests
+ * is dispatched through the route table, in parallel on the request executor, and answered with an
+ * array of {@code {status, headers, body}} in the same order.
+ */
+public class BatchHandler {
+    private static final Logger logger = Logger.getLogger(BatchHandler.class.getName());
+
+    private static final LongAdder batches = MetricsRegistry.counter("lightcore_batch_requests_total");
+    private static final LongAdder subRequests = MetricsRegistry.counter("lightcore_batch_subrequests_total");
+
+    public static boolean isBatchRequest(ServerExchange exchange, ServerConfig config) {
+        return config.isBatchEnabled() && "POST".equals(exchange.getRequestMethod())
+                && exchange.getRequestPath().equals(config.getBatchPath());
+    }
+
+    public static void handle(ServerExchange exchange, ServerConfig config) throws IOException {
+        BatchExchange[] items;
+        try {
+            items = parse(exchange, config);
+        }
+        catch (HttpStatusException e) {
+            ResponseWriter.sendError(exchange, e.getStatus(), e.getStatus() + " " + e.getMessage());
+            return;
+        }
+
+        batches.increment();
+        subRequests.add(items.length);
+
+        // The calling thread works through the batch too, so a saturated executor cannot stall it
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int index;
+            while((index = next.getAndIncrement()) < items.length) {
+                run(items[index], config);
+            }
+        };
+
+        Executor executor = HTTPServerStarter.getRequestExecutor();
+        int helpers = executor != null ? Math.min(config.getBatchParallelism(), items.length) - 1 : 0;
+
+        for(int i = 0 ; i < helpers ; i++) {
+            try {
+                executor.execute(worker);
+            }
+            catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        worker.run();
+
+        CompletableFuture<?>[] completions = new CompletableFuture<?>[items.length];
+        for(int i = 0 ; i < items.length ; i++) {
+            completions[i] = items[i].completion();
+        }
+
+        // Async routes may still be running; the batch is answered once the last one completes
+        CompletableFuture.allOf(completions).whenComplete((ignored, error) -> {
+            try {
+                ResponseWriter.writeJson(exchange, 200, new BatchResults(items), true);
+            }
+            catch (IOException e) {
+                logger.warning("Could not write batch response: " + e.getMessage());
+                exchange.close();
+            }
+        });
+    }
+
+    private static BatchExchange[] parse(ServerExchange exchange, ServerConfig config) {
+        JsonNode root;
+        try {
+            root = JsonSupport.mapper().readTree(new LimitedInputStream(exchange.getRequestBody(), config.getMaxBodySize()));
+        }
+        catch (IOException e) {
+            throw new HttpStatusException(400, "Bad Request: malformed batch");
+        }
+
+        if(root == null || !root.isArray()) {
+            throw new HttpStatusException(400, "Bad Request: a batch is a JSON array of requests");
+        }
+        if(root.size() > config.getBatchMaxRequests()) {
+            throw new HttpStatusException(413, "Payload Too Large: a batch holds at most " + config.getBatchMaxRequests() + " requests");
+        }
+
+        BatchExchange[] items = new BatchExchange[root.size()];
+        for(int i = 0 ; i < items.length ; i++) {
+            items[i] = toExchange(exchange, root.get(i), i);
+        }
+
+        return items;
+    }
+
+    /**
+     * @return the string value of a field, or the default if the field is absent or null
+     * @throws HttpStatusException 400 if the field holds anything but a string
+     */
+    private static String textField(JsonNode item, String field, String defaultValue, int index) {
+        JsonNode node = item.path(field);
+        if(node.isMissingNode() || node.isNull()) {
+            return defaultValue;
+        }
+        if(!node.isTextual()) {
+            throw new HttpStatusException(400, "Bad Request: request " + index + " has a non-string " + field);
+        }
+        return node.textValue();
+    }
+
+    private static BatchExchange toExchange(ServerExchange parent, JsonNode item, int index) {
+        String target = textField(item, "path", "", index);
+        if(!target.startsWith("/")) {
+            throw new HttpStatusException(400, "Bad Request: request " + index + " has no absolute path");
+        }
+
+        URI uri;
+        try {
+            uri = URI.create(target);
+        }
+        catch (IllegalArgumentException e) {
+            throw new HttpStatusException(400, "Bad Request: request " + index + " has an invalid path");
+        }
+
+        String method = textField(item, "method", "GET", index).toUpperCase();
+        String query = joinQuery(uri.getRawQuery(), item.get("query"));
+
+        JsonNode body = item.get("body");
+        byte[] bytes = new byte[0];
+        if(body != null && !body.isNull()) {
+            try {
+                bytes = JsonSupport.mapper().writeValueAsBytes(body);
+            }
+            catch (IOException e) {
+                throw new HttpStatusException(400, "Bad Request: request " + index + " has an invalid body");
+            }
+        }
+
+        return new BatchExchange(parent, method, uri.getPath(), query, bytes);
+    }
+
+    /**
+     * Appends the {@code query} of a sub-request, either a raw query string or an object of parameters,
+     * to the query already present in its path.
+     */
+    private static String joinQuery(String pathQuery, JsonNode query) {
+        StringBuilder joined = new StringBuilder(pathQuery != null ? pathQuery : "");
+
+        if(query != null && query.isTextual()) {
+            appendParameter(joined, query.asText().replaceFirst("^\\?", ""));
+        }
+        else if(query != null && query.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = query.fields();
+            while(fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                appendParameter(joined, URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(field.getValue().asText(), StandardCharsets.UTF_8));
+            }
+        }
+
+        return joined.length() > 0 ? joined.toString() : null;
+    }
+
+    private static void appendParameter(StringBuilder query, String parameter) {
+        if(parameter.isEmpty()) {
+            return;
+        }
+        if(query.length() > 0) {
+            query.append('&');
+        }
+        query.append(parameter);
+    }
+
+    private static void run(BatchExchange item, ServerConfig config) {
+        try {
+            HTTPServerStarter.route(item, config);
+        }
+        catch (IOException | RuntimeException e) {
+            logger.warning("Batch request " + item.getRequestMethod() + " " + item.getRequestPath() + " failed: " + e);
+
+            if(item.getResponseStatus() < 0) {
+                item.sendResponseHeaders(500, -1);
+            }
+            item.close();
+        }
+    }
+
+    /**
+     * Serializes the collected responses. JSON bodies are embedded as they are, text bodies as strings
+     * and anything else base64 encoded.
+     */
+    private static class BatchResults implements JsonSerializable {
+        private final BatchExchange[] items;
+
+        BatchResults(BatchExchange[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeStartArray();
+
+            for(BatchExchange item : items) {
+                generator.writeStartObject();
+                generator.writeNumberField("status", item.getResponseStatus());
+
+                Map<String, String> headers = item.getResponseHeaders();
+                if(!headers.isEmpty()) {
+                    generator.writeObjectFieldStart("headers");
+                    for(Map.Entry<String, String> header : headers.entrySet()) {
+                        generator.writeStringField(header.getKey(), header.getValue());
+                    }
+                    generator.writeEndObject();
+                }
+
+                generator.writeFieldName("body");
+                writeBody(generator, item.getResponseContentType(), item.getResponseBytes());
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer) throws IOException {
+            serialize(generator, serializers);
+        }
+
+        private static void writeBody(JsonGenerator generator, String contentType, byte[] body) throws IOException {
+            if(body.length == 0) {
+                generator.writeNull();
+            }
+            else if(contentType != null && contentType.startsWith("application/json")) {
+                generator.writeRawValue(new String(body, StandardCharsets.UTF_8));
+            }
+            else if(contentType != null && contentType.startsWith("text/")) {
+                generator.writeString(new String(body, StandardCharsets.UTF_8));
+            }
+            else {
+                generator.writeBinary(body);
+            }
+        }
+    }
+}
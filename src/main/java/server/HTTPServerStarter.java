@@ -5,100 +5,398 @@
 
 package server;
 
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpServer;
+import admission.AdmissionControl;
+import metrics.MetricsRegistry;
+import metrics.PrometheusExporter;
+import ratelimit.RateLimiter;
+import router.RouteBinding;
+import router.RouteMetrics;
 import router.Router;
+import tracing.Trace;
+import tracing.Tracer;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.nio.file.*;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class HTTPServerStarter {
     private static final Logger logger = Logger.getLogger(HTTPServerStarter.class.getName());
 
     private static final String CONFIG_FILE_PATH = "src/main/resources/lightcoreconfig/config.properties";
-    private static final int DEFAULT_SERVER_PORT = 9123;
-    private static boolean isCrossOriginEnabled = false;
-    private static List<String> allowedOrigins = new ArrayList<>();
 
-    private static HttpServer server;
-    private static int currentPort = -1;
+    private static final LongAdder reloads = MetricsRegistry.counter("lightcore_server_reloads_total");
+    private static final LongAdder reloadFailures = MetricsRegistry.counter("lightcore_server_reload_failures_total");
+    private static final LongAdder drainMillisTotal = MetricsRegistry.counter("lightcore_server_drain_millis_total");
+    private static final LongAdder unmatchedRequests = MetricsRegistry.counter("lightcore_http_unmatched_requests_total");
+    private static final AtomicLong lastDrainMillis = new AtomicLong();
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private static final AtomicReference<ActiveServer> active = new AtomicReference<>();
+    private static volatile ServerConfig activeConfig;
+
+    // Settings read only when a listener is bound, so a reload that keeps the port cannot apply them
+    private static final Map<String, Function<ServerConfig, Object>> BIND_SETTINGS = new LinkedHashMap<>();
+
+    /**
+     * A bound listener together with the executor running its handlers and the configuration it was built from.
+     */
+    private static class ActiveServer {
+        final HttpEngine engine;
+        final ExecutorService executor;
+        final int port;
+        final ServerConfig config;
+
+        ActiveServer(HttpEngine engine, ExecutorService executor, int port, ServerConfig config) {
+            this.engine = engine;
+            this.executor = executor;
+            this.port = port;
+            this.config = config;
+        }
+    }
+
+    static {
+        BIND_SETTINGS.put("server.engine", ServerConfig::getEngine);
+        BIND_SETTINGS.put("server.backlog", ServerConfig::getBacklog);
+        BIND_SETTINGS.put("server.nio.acceptors", ServerConfig::getAcceptors);
+        BIND_SETTINGS.put("server.nio.eventLoops", ServerConfig::getEventLoops);
+        BIND_SETTINGS.put("server.keepAliveTimeout", ServerConfig::getKeepAliveTimeout);
+        BIND_SETTINGS.put("server.tcpNoDelay", ServerConfig::isTcpNoDelay);
+        // The jdk engine checks the body size per request, the nio engine sizes its buffers with it
+        BIND_SETTINGS.put("server.maxBodySize", config -> "nio".equals(config.getEngine()) ? config.getMaxBodySize() : null);
+        BIND_SETTINGS.put("server.executor", ServerConfig::getExecutor);
+        BIND_SETTINGS.put("server.executor.poolSize", ServerConfig::getExecutorPoolSize);
+        BIND_SETTINGS.put("server.executor.queueCapacity", ServerConfig::getExecutorQueueCapacity);
+        BIND_SETTINGS.put("server.executor.rejectionPolicy", ServerConfig::getExecutorRejectionPolicy);
+
+        MetricsRegistry.gauge("lightcore_server_last_drain_millis", lastDrainMillis::get);
+        MetricsRegistry.gauge("lightcore_server_port", () -> active.get() != null ? active.get().port : -1);
+    }
 
     public static void start() throws IOException {
-        int port = readPortFromConfig();
-        startServer(port);
+        ServerConfig config = new ServerConfig();
+        activeConfig = config;
+        AdmissionControl.configure(config);
+        active.set(bind(config));
         watchConfigFile();
     }
 
-    private static void startServer(int port) throws IOException {
-        enableCrossOrigin();
-        if(server != null) {
-            logger.info("Stopping server on port " + currentPort);
-            server.stop(0);
+    /**
+     * @return the configuration currently applied to incoming requests
+     */
+    public static ServerConfig getActiveConfig() {
+        ServerConfig config = activeConfig;
+
+        if(config == null) {
+            config = new ServerConfig();
+            activeConfig = config;
         }
 
-        server = HttpServer.create(new InetSocketAddress(port), 0);
-        currentPort = port;
+        return config;
+    }
 
-        server.createContext("/", (HttpExchange exchange) -> {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
+    /**
+     * @return the executor running request handlers, or null if they run on the dispatcher thread
+     */
+    static ExecutorService getRequestExecutor() {
+        ActiveServer server = active.get();
+        return server != null ? server.executor : null;
+    }
 
-            if(isCrossOriginEnabled) {
-                String origin = exchange.getRequestHeaders().getFirst("Origin");
+    private static ActiveServer bind(ServerConfig config) throws IOException {
+        int port = config.getPort();
+        ExecutorService executor = ServerExecutors.create(config);
+        HttpEngine engine = HttpEngine.create(config);
 
-                if(origin != null && allowedOrigins.contains(origin)) {
-                    exchange.getResponseHeaders().add("Access-Control-Allow-Origin", origin);
-                    exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-                    exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-                } else if (allowedOrigins.contains("*")) {
-                    exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-                    exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-                    exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-                }
+        try {
+            engine.start(port, HTTPServerStarter::handle, executor);
+        }
+        catch (IOException e) {
+            if(executor != null) {
+                executor.shutdown();
             }
+            throw e;
+        }
 
-            if("OPTIONS".equalsIgnoreCase(method)){
-                exchange.sendResponseHeaders(204, -1);
-                return;
+        System.out.println("HTTP Server started on port: " + port + " (" + config.getEngine() + " engine)");
+        return new ActiveServer(engine, executor, port, config);
+    }
+
+    /**
+     * Applies a changed config.properties without dropping traffic. Settings read per request (CORS) are
+     * switched immediately. On a port change the new listener is bound first, becomes the active server,
+     * and only then is the old one drained for up to {@code server.drainTimeout} seconds. Engine and executor
+     * settings are only applied by that rebind; changing them alone is logged as needing a restart.
+     */
+    private static void reload() {
+        ServerConfig config = new ServerConfig();
+        ActiveServer previous = active.get();
+        activeConfig = config;
+        AdmissionControl.configure(config);
+
+        if(previous != null && config.getPort() == previous.port) {
+            List<String> pending = changedBindSettings(previous.config, config);
+            if(pending.isEmpty()) {
+                logger.info("Configuration reloaded");
+            }
+            else {
+                logger.warning("Configuration reloaded. Restart or change server.port to apply: " + String.join(", ", pending));
             }
+            reloads.increment();
+            return;
+        }
 
-            Router.Route route = Router.getHandler(method, path);
+        ActiveServer next;
+        try {
+            next = bind(config);
+        }
+        catch (IOException e) {
+            reloadFailures.increment();
+            logger.warning("Could not bind port " + config.getPort() + ", keeping server on port "
+                    + (previous != null ? previous.port : -1) + ": " + e.getMessage());
+            return;
+        }
 
-            if(route == null) {
-                String notFound = "404 Not Found";
-                exchange.sendResponseHeaders(404, notFound.length());
+        active.set(next);
+        reloads.increment();
+        logger.info("Server switched to port " + next.port);
 
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(notFound.getBytes());
-                }
+        if(previous != null) {
+            drain(previous, config.getDrainTimeout());
+        }
+    }
+
+    private static List<String> changedBindSettings(ServerConfig bound, ServerConfig config) {
+        List<String> changed = new ArrayList<>();
 
-                return;
+        BIND_SETTINGS.forEach((key, setting) -> {
+            if(!Objects.equals(setting.apply(bound), setting.apply(config))) {
+                changed.add(key);
             }
+        });
 
+        return changed;
+    }
+
+    private static void drain(ActiveServer server, int graceSeconds) {
+        long started = System.nanoTime();
+        logger.info("Draining server on port " + server.port + " (grace period " + graceSeconds + "s)");
+
+        server.engine.stop(graceSeconds);
+
+        if(server.executor != null) {
+            server.executor.shutdown();
             try {
-                Router.executeRoute(method, path, exchange);
+                long remaining = TimeUnit.SECONDS.toNanos(graceSeconds) - (System.nanoTime() - started);
+                server.executor.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS);
             }
-            catch (Exception e) {
-                e.printStackTrace();
-                String error = "500 Internal Server Error";
-                exchange.sendResponseHeaders(500, error.length());
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        lastDrainMillis.set(elapsed);
+        drainMillisTotal.add(elapsed);
+        logger.info("Server on port " + server.port + " drained in " + elapsed + " ms");
+    }
+
+    private static void handle(ServerExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestPath();
+
+        ServerConfig config = activeConfig;
+        if(config.isCrossOriginEnabled()) {
+            List<String> allowedOrigins = config.getAllowedOrigins();
+            String origin = exchange.getRequestHeader("Origin");
+
+            if(origin != null && allowedOrigins.contains(origin)) {
+                exchange.addResponseHeader("Access-Control-Allow-Origin", origin);
+                exchange.addResponseHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+                exchange.addResponseHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+            } else if (allowedOrigins.contains("*")) {
+                exchange.addResponseHeader("Access-Control-Allow-Origin", "*");
+                exchange.addResponseHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+                exchange.addResponseHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+            }
+        }
+
+        if("OPTIONS".equalsIgnoreCase(method)){
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+
+        if(config.isMetricsEnabled() && path.equals(config.getMetricsPath()) && "GET".equals(method) && mayReadMetrics(exchange, config)) {
+            ResponseWriter.writeText(exchange, 200, PrometheusExporter.CONTENT_TYPE, PrometheusExporter.scrape());
+            return;
+        }
+
+        if(StaticFileHandler.handle(exchange, config)) {
+            return;
+        }
 
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(error.getBytes());
+        if(exceedsMaxBodySize(exchange, config)) {
+            ResponseWriter.sendPayloadTooLarge(exchange);
+            return;
+        }
+
+        if(BatchHandler.isBatchRequest(exchange, config)) {
+            BatchHandler.handle(exchange, config);
+            return;
+        }
+
+        route(exchange, config);
+    }
+
+    /**
+     * Runs a request through the route table. Also the entry point of each sub-request of a batch.
+     */
+    static void route(ServerExchange exchange, ServerConfig config) throws IOException {
+        Router.RouteMatch match = Router.match(exchange.getRequestMethod(), exchange.getRequestPath());
+
+        if(match == null) {
+            unmatchedRequests.increment();
+            ResponseWriter.sendNotFound(exchange);
+            return;
+        }
+
+        RouteMetrics metrics = match.getRoute().getBinding().getMetrics();
+        long started = System.nanoTime();
+        metrics.requestStarted();
+
+        Trace trace = startTrace(match, config);
+        Trace previous = trace != null ? Tracer.attach(trace) : null;
+
+        CompletionStage<Void> completion = null;
+        try {
+            completion = dispatch(exchange, match, config);
+        }
+        finally {
+            if(trace != null) {
+                Tracer.restore(previous);
+            }
+            if(completion == null) {
+                requestCompleted(exchange, metrics, started, trace, config);
+            }
+        }
+
+        completion.whenComplete((ignored, error) -> requestCompleted(exchange, metrics, started, trace, config));
+    }
+
+    private static Trace startTrace(Router.RouteMatch match, ServerConfig config) {
+        if(!config.isTracingEnabled()) {
+            return null;
+        }
+
+        Router.Route route = match.getRoute();
+        boolean logging = config.getTracingSampleRate() > 0 || config.getTracingSlowThreshold() > 0;
+        return Tracer.start(route.getHttpMethod() + ":" + route.getPathPattern(), config.isServerTimingEnabled(), logging);
+    }
+
+    private static void requestCompleted(ServerExchange exchange, RouteMetrics metrics, long started, Trace trace, ServerConfig config) {
+        int status = exchange.getResponseStatus();
+        metrics.requestCompleted(status, System.nanoTime() - started);
+
+        if(trace != null) {
+            Tracer.finish(trace, status, config.getTracingSampleRate(), config.getTracingSlowThreshold());
+        }
+    }
+
+    /**
+     * Applies the rate limit and admission control of a matched route, then runs it.
+     *
+     * @return a stage completed once the response, including an error response, has been written
+     */
+    private static CompletionStage<Void> dispatch(ServerExchange exchange, Router.RouteMatch match, ServerConfig config) throws IOException {
+        RouteBinding binding = match.getRoute().getBinding();
+        RateLimiter rateLimiter = binding.getRateLimiter();
+
+        if(rateLimiter != null) {
+            long retryAfterNanos = rateLimiter.tryAcquire(exchange);
+            if(retryAfterNanos > 0) {
+                // Retry-After is whole seconds, rounded up so clients never retry too early
+                ResponseWriter.sendTooManyRequests(exchange, (int) TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+                return COMPLETED;
+            }
+        }
+
+        AdmissionControl.Permit permit = AdmissionControl.admit(binding.getConcurrencyLimiter());
+
+        if(permit == null) {
+            ResponseWriter.sendServiceUnavailable(exchange, config.getAdmissionRetryAfter());
+            return COMPLETED;
+        }
+
+        CompletionStage<Void> completion;
+        try {
+            completion = Router.executeRoute(match, exchange);
+        }
+        catch (Exception e) {
+            permit.close();
+            sendFailure(exchange, e);
+            return COMPLETED;
+        }
+
+        // Async controllers keep their permit until the response is written
+        return completion.handle((ignored, error) -> {
+            permit.close();
+
+            if(error != null) {
+                try {
+                    sendFailure(exchange, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+                catch (IOException e) {
+                    exchange.close();
                 }
             }
+            return null;
         });
+    }
+
+    private static void sendFailure(ServerExchange exchange, Throwable error) throws IOException {
+        if(error instanceof HttpStatusException) {
+            HttpStatusException e = (HttpStatusException) error;
+            ResponseWriter.sendError(exchange, e.getStatus(), e.getStatus() + " " + e.getMessage());
+            return;
+        }
 
-        server.setExecutor(null);
-        server.start();
-        System.out.println("HTTP Server started on port: " + port);
+        error.printStackTrace();
+        ResponseWriter.sendInternalError(exchange);
+    }
+
+    private static boolean mayReadMetrics(ServerExchange exchange, ServerConfig config) {
+        if(config.isMetricsRemoteAllowed()) {
+            return true;
+        }
+
+        InetSocketAddress address = exchange.getRemoteAddress();
+        return address != null && address.getAddress() != null && address.getAddress().isLoopbackAddress();
+    }
+
+    private static boolean exceedsMaxBodySize(ServerExchange exchange, ServerConfig config) {
+        String contentLength = exchange.getRequestHeader("Content-Length");
+
+        try {
+            return contentLength != null && Long.parseLong(contentLength.trim()) > config.getMaxBodySize();
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
     }
 
     public static void watchConfigFile() {
@@ -117,12 +415,8 @@ public class HTTPServerStarter {
 
                         if(changed.toString().equals("config.properties")) {
                             Thread.sleep(200);
-                            int newPort = readPortFromConfig();
-
-                            if(newPort != currentPort) {
-                                logger.info("Detected server port change. Restarting server on new port: " + newPort);
-                                startServer(newPort);
-                            }
+                            logger.info("Detected configuration change. Reloading server configuration");
+                            reload();
                         }
                     }
 
@@ -137,45 +431,4 @@ public class HTTPServerStarter {
         watcherThread.setDaemon(false);
         watcherThread.start();
     }
-
-    private static int readPortFromConfig() {
-        Properties properties = new Properties();
-        File file = new File(CONFIG_FILE_PATH);
-
-        if(!file.exists()) {
-            logger.info("config.properties not found. Using default port " + DEFAULT_SERVER_PORT);
-            return DEFAULT_SERVER_PORT;
-        }
-
-        try (InputStream inputStream = new FileInputStream(file)) {
-            properties.load(inputStream);
-            return Integer.parseInt(properties.getProperty("server.port", String.valueOf(DEFAULT_SERVER_PORT)));
-        }
-        catch (IOException | NumberFormatException e) {
-            logger.info("Error reading port. Using default");
-            return DEFAULT_SERVER_PORT;
-        }
-    }
-
-    private static void enableCrossOrigin() {
-        Properties properties = new Properties();
-        File file = new File(CONFIG_FILE_PATH);
-
-        if(!file.exists()) return;
-
-        try(InputStream inputStream = new FileInputStream(file)) {
-            properties.load(inputStream);
-            isCrossOriginEnabled = Boolean.parseBoolean(properties.getProperty("server.crossOrigin", "false"));
-            String originString = properties.getProperty("server.allowedOrigins", "*");
-
-            if(!originString.isEmpty()) {
-                allowedOrigins = Arrays.stream(originString.split(","))
-                                       .map(String::trim)
-                                       .collect(Collectors.toList());
-            }
-        }
-        catch(IOException e) {
-            logger.info("Error reading config, CORS disabled by default");
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * A listening HTTP server implementation. Selected with {@code server.engine} in config.properties.
+ */
+public interface HttpEngine {
+    /**
+     * Binds the listener and starts serving requests.
+     *
+     * @param port     the port to bind
+     * @param handler  the handler invoked for every request
+     * @param executor the executor running the handler, or null to run it on the engine's own threads
+     * @throws IOException if the port cannot be bound
+     */
+    void start(int port, RequestHandler handler, Executor executor) throws IOException;
+
+    /**
+     * Stops accepting connections and waits up to the given delay for in-flight exchanges to finish.
+     *
+     * @param delaySeconds the maximum time to wait before closing every connection
+     */
+    void stop(int delaySeconds);
+
+    int getPort();
+
+    static HttpEngine create(ServerConfig config) {
+        if("nio".equals(config.getEngine())) {
+            return new NioHttpEngine(config);
+        }
+
+        return new JdkHttpEngine(config);
+    }
+}
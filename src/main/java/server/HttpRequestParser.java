@@ -0,0 +1,123 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Minimal HTTP/1.x request-head parser used by the NIO engine.
+ */
+class HttpRequestParser {
+    static class RequestHead {
+        final String method;
+        final String path;
+        final String query;
+        final String version;
+        final Map<String, String> headers;
+
+        RequestHead(String method, String path, String query, String version, Map<String, String> headers) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.version = version;
+            this.headers = headers;
+        }
+
+        String header(String name) {
+            return headers.get(name);
+        }
+
+        boolean isKeepAlive() {
+            String connection = headers.get("Connection");
+
+            if("HTTP/1.0".equals(version)) {
+                return connection != null && connection.equalsIgnoreCase("keep-alive");
+            }
+
+            return connection == null || !connection.equalsIgnoreCase("close");
+        }
+    }
+
+    /**
+     * Returns the offset just past the "\r\n\r\n" terminating the request head, or -1 if it is not complete yet.
+     */
+    static int findHeadEnd(byte[] data, int from, int limit) {
+        for(int i = Math.max(0, from - 3) ; i + 3 < limit ; i++) {
+            if(data[i] == '\r' && data[i + 1] == '\n' && data[i + 2] == '\r' && data[i + 3] == '\n') {
+                return i + 4;
+            }
+        }
+
+        return -1;
+    }
+
+    static RequestHead parse(byte[] data, int offset, int length) {
+        String head = new String(data, offset, length, StandardCharsets.ISO_8859_1);
+        int lineEnd = head.indexOf("\r\n");
+        String requestLine = head.substring(0, lineEnd);
+
+        int firstSpace = requestLine.indexOf(' ');
+        int lastSpace = requestLine.lastIndexOf(' ');
+        if(firstSpace <= 0 || lastSpace <= firstSpace) {
+            throw new IllegalArgumentException("Malformed request line: " + requestLine);
+        }
+
+        String method = requestLine.substring(0, firstSpace);
+        String target = requestLine.substring(firstSpace + 1, lastSpace);
+        String version = requestLine.substring(lastSpace + 1);
+
+        if(!version.startsWith("HTTP/1.")) {
+            throw new IllegalArgumentException("Unsupported protocol: " + version);
+        }
+
+        int queryStart = target.indexOf('?');
+        String rawPath = queryStart >= 0 ? target.substring(0, queryStart) : target;
+        String query = queryStart >= 0 ? target.substring(queryStart + 1) : null;
+
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int position = lineEnd + 2;
+
+        while(position < head.length()) {
+            int end = head.indexOf("\r\n", position);
+            if(end < 0) end = head.length();
+            if(end == position) break;
+
+            int colon = head.indexOf(':', position);
+            if(colon > position && colon < end) {
+                String name = head.substring(position, colon).trim();
+                String value = head.substring(colon + 1, end).trim();
+                String previous = headers.putIfAbsent(name, value);
+                if(previous != null && isFraming(name) && !(previous.equals(value) && "Content-Length".equalsIgnoreCase(name))) {
+                    // A proxy may frame the request by the other value; only identical Content-Lengths collapse
+                    throw new IllegalArgumentException("Repeated " + name + " header");
+                }
+            }
+
+            position = end + 2;
+        }
+
+        if(headers.containsKey("Content-Length") && headers.containsKey("Transfer-Encoding")) {
+            throw new IllegalArgumentException("Both Content-Length and Transfer-Encoding are present");
+        }
+
+        return new RequestHead(method, decodePath(rawPath), query, version, headers);
+    }
+
+    private static boolean isFraming(String name) {
+        return "Content-Length".equalsIgnoreCase(name) || "Transfer-Encoding".equalsIgnoreCase(name);
+    }
+
+    private static String decodePath(String rawPath) {
+        if(rawPath.indexOf('%') < 0) {
+            return rawPath;
+        }
+
+        return URLDecoder.decode(rawPath.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link HttpEngine} backed by the JDK's com.sun.net.httpserver implementation.
+ */
+public class JdkHttpEngine implements HttpEngine {
+    // Set while a request the executor rejected runs on the dispatcher thread, so it is answered with 503
+    private static final ThreadLocal<Boolean> rejecting = new ThreadLocal<>();
+
+    private final int backlog;
+    private final int retryAfter;
+    private HttpServer server;
+
+    public JdkHttpEngine(ServerConfig config) {
+        this.backlog = config.getBacklog();
+        this.retryAfter = config.getAdmissionRetryAfter();
+    }
+
+    @Override
+    public void start(int port, RequestHandler handler, Executor executor) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), backlog);
+        server.createContext("/", exchange -> {
+            if(rejecting.get() != null) {
+                ResponseWriter.sendServiceUnavailable(new JdkServerExchange(exchange), retryAfter);
+                return;
+            }
+            handler.handle(new JdkServerExchange(exchange));
+        });
+        server.setExecutor(executor != null ? rejectingWith503(executor) : null);
+        server.start();
+    }
+
+    /**
+     * The JDK server does not handle a rejected task, it just drops the connection. This runs a rejected
+     * request on the dispatcher thread instead, where it is only answered with 503.
+     */
+    private static Executor rejectingWith503(Executor executor) {
+        return command -> {
+            try {
+                executor.execute(command);
+            }
+            catch (RejectedExecutionException e) {
+                rejecting.set(Boolean.TRUE);
+                try {
+                    command.run();
+                }
+                finally {
+                    rejecting.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void stop(int delaySeconds) {
+        if(server != null) {
+            server.stop(delaySeconds);
+        }
+    }
+
+    @Override
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+}
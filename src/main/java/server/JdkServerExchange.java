@@ -0,0 +1,84 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+/**
+ * {@link ServerExchange} adapter over a JDK {@link HttpExchange}.
+ */
+public class JdkServerExchange implements ServerExchange {
+    private final HttpExchange exchange;
+
+    public JdkServerExchange(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    @Override
+    public String getRequestPath() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    @Override
+    public String getRequestQuery() {
+        return exchange.getRequestURI().getRawQuery();
+    }
+
+    @Override
+    public String getRequestHeader(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return exchange.getRequestBody();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return exchange.getRemoteAddress();
+    }
+
+    @Override
+    public void setResponseHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    @Override
+    public void addResponseHeader(String name, String value) {
+        exchange.getResponseHeaders().add(name, value);
+    }
+
+    @Override
+    public void sendResponseHeaders(int status, long length) throws IOException {
+        exchange.sendResponseHeaders(status, length);
+    }
+
+    @Override
+    public int getResponseStatus() {
+        return exchange.getResponseCode();
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return exchange.getResponseBody();
+    }
+
+    @Override
+    public void close() {
+        exchange.close();
+    }
+}
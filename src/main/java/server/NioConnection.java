@@ -0,0 +1,429 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one keep-alive connection of the NIO engine. Reading, parsing and socket writes happen on the
+ * owning event loop; handler threads only append to the outbound queue, blocking while more than
+ * {@link #HIGH_WATERMARK} bytes are still waiting to be written.
+ */
+class NioConnection {
+    private static final int HIGH_WATERMARK = 256 * 1024;
+    private static final int LOW_WATERMARK = 64 * 1024;
+
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final NioHttpEngine engine;
+    private final NioEventLoop eventLoop;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final InetSocketAddress remoteAddress;
+
+    private byte[] inbound = new byte[8 * 1024];
+    private int inboundLength;
+    private int scannedLength;
+    private boolean continueSent;
+
+    private HttpRequestParser.RequestHead pendingHead;
+    private int pendingHeadEnd;
+    private int pendingContentLength;
+
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    private NioServerExchange current;
+    private volatile boolean responseComplete;
+    private volatile boolean closeAfterResponse;
+    private volatile boolean closed;
+    private long lastActivity = System.currentTimeMillis();
+
+    NioConnection(NioHttpEngine engine, NioEventLoop eventLoop, SocketChannel channel, SelectionKey key) throws IOException {
+        this.engine = engine;
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.key = key;
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+    }
+
+    void onReadable() throws IOException {
+        ByteBuffer readBuffer = eventLoop.readBuffer;
+        readBuffer.clear();
+
+        int read = channel.read(readBuffer);
+        if(read < 0) {
+            close();
+            return;
+        }
+
+        readBuffer.flip();
+        ensureInboundCapacity(inboundLength + read);
+        readBuffer.get(inbound, inboundLength, read);
+        inboundLength += read;
+        lastActivity = System.currentTimeMillis();
+
+        if(current == null) {
+            processInbound();
+        }
+    }
+
+    void onWritable() throws IOException {
+        flush();
+    }
+
+    /**
+     * Parses the next complete request from the inbound buffer, if any, and dispatches it.
+     */
+    private void processInbound() {
+        if(pendingHead == null && !parseHead()) {
+            return;
+        }
+
+        int requestLength = pendingHeadEnd + pendingContentLength;
+        if(inboundLength < requestLength) {
+            if(!continueSent && "100-continue".equalsIgnoreCase(pendingHead.header("Expect"))) {
+                continueSent = true;
+                enqueue(ByteBuffer.wrap(CONTINUE));
+            }
+            return;
+        }
+
+        HttpRequestParser.RequestHead head = pendingHead;
+        byte[] body = Arrays.copyOfRange(inbound, pendingHeadEnd, requestLength);
+        inboundLength -= requestLength;
+        System.arraycopy(inbound, requestLength, inbound, 0, inboundLength);
+        pendingHead = null;
+        scannedLength = 0;
+        continueSent = false;
+
+        responseComplete = false;
+        closeAfterResponse = !head.isKeepAlive();
+        current = new NioServerExchange(this, head, body);
+        engine.getInFlight().incrementAndGet();
+
+        // Pipelined requests wait in the buffer until this response is written
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+
+        try {
+            eventLoop.dispatch(this, current);
+        }
+        catch (RejectedExecutionException e) {
+            current = null;
+            engine.getInFlight().decrementAndGet();
+            rejectAndClose(503);
+        }
+    }
+
+    /**
+     * Parses and validates the request head once it is complete.
+     *
+     * @return true if a head is now pending, false if more data is needed or the request was rejected
+     */
+    private boolean parseHead() {
+        int headEnd = HttpRequestParser.findHeadEnd(inbound, scannedLength, inboundLength);
+
+        if(headEnd < 0) {
+            scannedLength = inboundLength;
+            if(inboundLength > NioHttpEngine.MAX_HEADER_SIZE) {
+                rejectAndClose(431);
+            }
+            return false;
+        }
+
+        HttpRequestParser.RequestHead head;
+        try {
+            head = HttpRequestParser.parse(inbound, 0, headEnd);
+        }
+        catch (RuntimeException e) {
+            rejectAndClose(400);
+            return false;
+        }
+
+        if(head.header("Transfer-Encoding") != null) {
+            rejectAndClose(501);
+            return false;
+        }
+
+        long contentLength;
+        try {
+            String header = head.header("Content-Length");
+            contentLength = header != null ? Long.parseLong(header) : 0;
+        }
+        catch (NumberFormatException e) {
+            rejectAndClose(400);
+            return false;
+        }
+
+        if(contentLength < 0) {
+            rejectAndClose(400);
+            return false;
+        }
+
+        if(contentLength > engine.getMaxBodySize()) {
+            rejectAndClose(413);
+            return false;
+        }
+
+        pendingHead = head;
+        pendingHeadEnd = headEnd;
+        pendingContentLength = (int) contentLength;
+        return true;
+    }
+
+    private void rejectAndClose(int status) {
+        // Nothing more is parsed on this connection, so bytes the client keeps sending cannot produce a second error
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        inboundLength = 0;
+        scannedLength = 0;
+        pendingHead = null;
+
+        closeAfterResponse = true;
+        responseComplete = true;
+        String response = "HTTP/1.1 " + status + " " + NioServerExchange.reasonPhrase(status) + "\r\n"
+                + "Content-Length: 0\r\nConnection: close\r\n\r\n";
+        enqueue(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /**
+     * Queues bytes for writing. May be called from any thread; handler threads block while the
+     * connection is above its high watermark.
+     */
+    void enqueue(ByteBuffer buffer) {
+        if(closed) return;
+
+        outbound.add(buffer);
+        long pending = pendingBytes.addAndGet(buffer.remaining());
+        scheduleFlush();
+
+        if(pending > HIGH_WATERMARK && !eventLoop.inEventLoop()) {
+            awaitWritable();
+        }
+    }
+
+    private void awaitWritable() {
+        synchronized (writeLock) {
+            while(!closed && pendingBytes.get() > LOW_WATERMARK) {
+                try {
+                    writeLock.wait(100);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void ensureOpen() throws IOException {
+        if(closed) {
+            throw new InterruptedIOException("Connection closed");
+        }
+    }
+
+    /**
+     * Marks the current response as fully queued; the connection is recycled once the queue drains.
+     */
+    void completeResponse(boolean closeConnection) {
+        if(closeConnection) {
+            closeAfterResponse = true;
+        }
+        responseComplete = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if(flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(() -> {
+                flushScheduled.set(false);
+                try {
+                    flush();
+                }
+                catch (IOException e) {
+                    close();
+                }
+            });
+        }
+    }
+
+    private void flush() throws IOException {
+        if(closed) return;
+
+        ByteBuffer writeBuffer = eventLoop.writeBuffer;
+
+        while(true) {
+            if(!writeQueued(writeBuffer)) {
+                // The socket is full, OP_WRITE brings us back
+                return;
+            }
+
+            if(!responseComplete) {
+                break;
+            }
+
+            // A handler may have queued its last buffer between the drain and completeResponse();
+            // seeing the flag guarantees that buffer is visible now, so only an empty queue ends the response
+            if(outbound.isEmpty()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                finishResponse();
+                return;
+            }
+        }
+
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Writes queued buffers until the queue is empty or the socket stops accepting bytes.
+     *
+     * @return false if the socket is full, in which case OP_WRITE has been requested
+     */
+    private boolean writeQueued(ByteBuffer writeBuffer) throws IOException {
+        while(!outbound.isEmpty()) {
+            ByteBuffer next = outbound.peek();
+            int requested;
+            int written;
+
+            if(next.isDirect()) {
+                // Mapped file regions go to the socket as they are, without a copy into the write buffer
+                ByteBuffer region = next.duplicate();
+                requested = region.remaining();
+                written = channel.write(region);
+            }
+            else {
+                writeBuffer.clear();
+                for(ByteBuffer buffer : outbound) {
+                    if(!writeBuffer.hasRemaining() || buffer.isDirect()) break;
+
+                    ByteBuffer slice = buffer.duplicate();
+                    if(slice.remaining() > writeBuffer.remaining()) {
+                        slice.limit(slice.position() + writeBuffer.remaining());
+                    }
+                    writeBuffer.put(slice);
+                }
+                writeBuffer.flip();
+
+                requested = writeBuffer.remaining();
+                written = channel.write(writeBuffer);
+            }
+
+            consume(written);
+            lastActivity = System.currentTimeMillis();
+
+            if(written < requested) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void consume(int written) {
+        int remaining = written;
+
+        while(remaining > 0) {
+            ByteBuffer head = outbound.peek();
+            int step = Math.min(head.remaining(), remaining);
+            head.position(head.position() + step);
+            remaining -= step;
+
+            if(!head.hasRemaining()) {
+                outbound.poll();
+            }
+        }
+
+        if(pendingBytes.addAndGet(-written) <= LOW_WATERMARK) {
+            synchronized (writeLock) {
+                writeLock.notifyAll();
+            }
+        }
+    }
+
+    private void finishResponse() {
+        responseComplete = false;
+
+        if(current != null) {
+            current = null;
+            engine.getInFlight().decrementAndGet();
+        }
+
+        if(closeAfterResponse) {
+            close();
+            return;
+        }
+
+        key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        lastActivity = System.currentTimeMillis();
+
+        if(inboundLength > 0) {
+            processInbound();
+        }
+    }
+
+    void close() {
+        if(closed) return;
+        closed = true;
+
+        key.cancel();
+        try {
+            channel.close();
+        }
+        catch (IOException ignored) {
+        }
+
+        if(current != null) {
+            current = null;
+            engine.getInFlight().decrementAndGet();
+        }
+
+        outbound.clear();
+        eventLoop.removeConnection(this);
+
+        synchronized (writeLock) {
+            writeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Closes the connection from a non-loop thread.
+     */
+    void abort() {
+        eventLoop.execute(this::close);
+    }
+
+    private void ensureInboundCapacity(int required) {
+        if(required > inbound.length) {
+            inbound = Arrays.copyOf(inbound, Math.max(required, inbound.length * 2));
+        }
+    }
+
+    boolean isIdle() {
+        return current == null;
+    }
+
+    long getLastActivity() {
+        return lastActivity;
+    }
+
+    InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+}
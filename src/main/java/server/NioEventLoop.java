@@ -0,0 +1,191 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * A single selector thread owning the sockets of its connections. Other threads interact with it only
+ * through {@link #execute(Runnable)}; the direct read and write buffers are shared by all of its connections.
+ */
+class NioEventLoop implements Runnable {
+    private static final Logger logger = Logger.getLogger(NioEventLoop.class.getName());
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_CHECK_INTERVAL_MILLIS = 1000;
+
+    private final NioHttpEngine engine;
+    private final RequestHandler handler;
+    private final Executor executor;
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final Set<NioConnection> connections = new HashSet<>();
+
+    final ByteBuffer readBuffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+    final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+
+    private Thread thread;
+    private volatile boolean running = true;
+
+    NioEventLoop(NioHttpEngine engine, RequestHandler handler, Executor executor) throws IOException {
+        this.engine = engine;
+        this.handler = handler;
+        this.executor = executor;
+        this.selector = Selector.open();
+    }
+
+    void start(String name) {
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NioConnection connection = new NioConnection(engine, this, channel, key);
+                key.attach(connection);
+                connections.add(connection);
+            }
+            catch (IOException e) {
+                closeQuietly(channel);
+            }
+        });
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+
+        if(Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    void dispatch(NioConnection connection, NioServerExchange exchange) {
+        executor.execute(() -> {
+            try {
+                handler.handle(exchange);
+            }
+            catch (Throwable t) {
+                logger.warning("Unhandled error in request handler: " + t);
+                exchange.abort();
+            }
+        });
+    }
+
+    void removeConnection(NioConnection connection) {
+        connections.remove(connection);
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long lastIdleCheck = System.currentTimeMillis();
+
+        while(running) {
+            try {
+                selector.select(IDLE_CHECK_INTERVAL_MILLIS);
+                wakeupPending.set(false);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if(connection == null || !key.isValid()) continue;
+
+                    try {
+                        if(key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if(key.isValid() && key.isWritable()) {
+                            connection.onWritable();
+                        }
+                    }
+                    catch (IOException | RuntimeException e) {
+                        connection.close();
+                    }
+                }
+
+                runTasks();
+
+                long now = System.currentTimeMillis();
+                if(now - lastIdleCheck >= IDLE_CHECK_INTERVAL_MILLIS) {
+                    lastIdleCheck = now;
+                    closeIdleConnections(now);
+                }
+            }
+            catch (IOException e) {
+                logger.warning("Event loop error: " + e.getMessage());
+            }
+        }
+
+        runTasks();
+        for(NioConnection connection : new ArrayList<>(connections)) {
+            connection.close();
+        }
+
+        try {
+            selector.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            }
+            catch (RuntimeException e) {
+                logger.warning("Event loop task failed: " + e);
+            }
+        }
+    }
+
+    private void closeIdleConnections(long now) {
+        long keepAliveMillis = engine.getKeepAliveMillis();
+
+        for(NioConnection connection : new ArrayList<>(connections)) {
+            if(connection.isIdle() && now - connection.getLastActivity() > keepAliveMillis) {
+                connection.close();
+            }
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,203 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Selector-based {@link HttpEngine}. {@code server.nio.acceptors} acceptor threads hand new connections
+ * round-robin to a set of event loops (one per core by default) that own all socket I/O; handlers run on
+ * the request executor. Where the OS supports {@code SO_REUSEPORT}, each acceptor gets its own listening
+ * socket so the kernel spreads accepts across them; otherwise they share one.
+ * Connections are kept alive between requests until {@code server.keepAliveTimeout} seconds of inactivity.
+ */
+public class NioHttpEngine implements HttpEngine {
+    private static final Logger logger = Logger.getLogger(NioHttpEngine.class.getName());
+
+    static final int MAX_HEADER_SIZE = 16 * 1024;
+
+    private final int backlog;
+    private final int acceptorCount;
+    private final int eventLoopCount;
+    private final long keepAliveMillis;
+    private final boolean tcpNoDelay;
+    private final long maxBodySize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    private ServerSocketChannel[] serverChannels;
+    private NioEventLoop[] eventLoops;
+    private ExecutorService dispatcher;
+    private volatile boolean running;
+
+    public NioHttpEngine(ServerConfig config) {
+        this.backlog = config.getBacklog();
+        this.acceptorCount = Math.max(1, config.getAcceptors());
+        this.eventLoopCount = Math.max(1, config.getEventLoops());
+        this.keepAliveMillis = config.getKeepAliveTimeout() * 1000L;
+        this.tcpNoDelay = config.isTcpNoDelay();
+        // Bodies are buffered in a byte array before dispatch
+        this.maxBodySize = Math.min(config.getMaxBodySize(), Integer.MAX_VALUE - MAX_HEADER_SIZE - 8);
+    }
+
+    @Override
+    public void start(int port, RequestHandler handler, Executor executor) throws IOException {
+        if(executor == null) {
+            // Handlers must never run on an event loop, a blocking write would stall every connection on it
+            dispatcher = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "lightcore-nio-dispatcher"));
+            executor = dispatcher;
+        }
+
+        serverChannels = openListeners(port);
+
+        eventLoops = new NioEventLoop[eventLoopCount];
+        for(int i = 0 ; i < eventLoopCount ; i++) {
+            eventLoops[i] = new NioEventLoop(this, handler, executor);
+            eventLoops[i].start("lightcore-nio-loop-" + i);
+        }
+
+        running = true;
+        for(int i = 0 ; i < acceptorCount ; i++) {
+            ServerSocketChannel listener = serverChannels[i % serverChannels.length];
+            new Thread(() -> acceptLoop(listener), "lightcore-nio-acceptor-" + i).start();
+        }
+    }
+
+    /**
+     * Binds one listening socket per acceptor with {@code SO_REUSEPORT}, or a single shared one when
+     * there is one acceptor or the option is not supported.
+     */
+    private ServerSocketChannel[] openListeners(int port) throws IOException {
+        ServerSocketChannel first = ServerSocketChannel.open();
+        boolean reusePort = acceptorCount > 1 && first.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+
+        ServerSocketChannel[] listeners = new ServerSocketChannel[reusePort ? acceptorCount : 1];
+        listeners[0] = first;
+
+        try {
+            bind(first, port, reusePort);
+            // With port 0 the others must join the port the first one got
+            int boundPort = ((InetSocketAddress) first.getLocalAddress()).getPort();
+
+            for(int i = 1 ; i < listeners.length ; i++) {
+                listeners[i] = ServerSocketChannel.open();
+                bind(listeners[i], boundPort, true);
+            }
+        }
+        catch (IOException e) {
+            closeListeners(listeners);
+            throw e;
+        }
+
+        return listeners;
+    }
+
+    private void bind(ServerSocketChannel listener, int port, boolean reusePort) throws IOException {
+        listener.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        if(reusePort) {
+            listener.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+        }
+        listener.bind(new InetSocketAddress(port), backlog);
+    }
+
+    private void acceptLoop(ServerSocketChannel serverChannel) {
+        while(running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, tcpNoDelay);
+                channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+
+                eventLoops[Math.floorMod(nextLoop.getAndIncrement(), eventLoops.length)].register(channel);
+            }
+            catch (ClosedChannelException e) {
+                return;
+            }
+            catch (IOException e) {
+                if(running) {
+                    logger.warning("Error accepting connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop(int delaySeconds) {
+        running = false;
+
+        if(serverChannels != null) {
+            closeListeners(serverChannels);
+        }
+
+        long deadline = System.currentTimeMillis() + delaySeconds * 1000L;
+        while(inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if(eventLoops != null) {
+            for(NioEventLoop eventLoop : eventLoops) {
+                eventLoop.shutdown();
+            }
+        }
+
+        if(dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    private static void closeListeners(ServerSocketChannel[] listeners) {
+        for(ServerSocketChannel listener : listeners) {
+            if(listener == null) {
+                continue;
+            }
+            try {
+                listener.close();
+            }
+            catch (IOException e) {
+                logger.warning("Error closing listener: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public int getPort() {
+        try {
+            return serverChannels != null ? ((InetSocketAddress) serverChannels[0].getLocalAddress()).getPort() : -1;
+        }
+        catch (IOException e) {
+            return -1;
+        }
+    }
+
+    long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    AtomicInteger getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,348 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link ServerExchange} of the NIO engine. The request is fully buffered before dispatch; the response is
+ * framed here (fixed length or chunked) and handed to the owning {@link NioConnection} for writing.
+ */
+class NioServerExchange implements ServerExchange {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final byte[] CRLF = {'\r', '\n'};
+    // Files are mapped region by region so back-pressure applies between regions
+    private static final long MAPPED_REGION_SIZE = 4L * 1024 * 1024;
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final NioConnection connection;
+    private final HttpRequestParser.RequestHead head;
+    private final byte[] body;
+    private final Map<String, List<String>> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final ResponseStream responseStream = new ResponseStream();
+
+    private boolean headersSent;
+    private int responseStatus = -1;
+    private boolean finished;
+    private boolean chunked;
+    private long remainingLength;
+
+    NioServerExchange(NioConnection connection, HttpRequestParser.RequestHead head, byte[] body) {
+        this.connection = connection;
+        this.head = head;
+        this.body = body;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return head.method;
+    }
+
+    @Override
+    public String getRequestPath() {
+        return head.path;
+    }
+
+    @Override
+    public String getRequestQuery() {
+        return head.query;
+    }
+
+    @Override
+    public String getRequestHeader(String name) {
+        return head.header(name);
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public void setResponseHeader(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        responseHeaders.put(name, values);
+    }
+
+    @Override
+    public void addResponseHeader(String name, String value) {
+        responseHeaders.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+    }
+
+    @Override
+    public void sendResponseHeaders(int status, long length) throws IOException {
+        if(headersSent) {
+            throw new IOException("Response headers already sent");
+        }
+        connection.ensureOpen();
+        headersSent = true;
+        responseStatus = status;
+
+        boolean keepAlive = head.isKeepAlive();
+        StringBuilder builder = new StringBuilder(128);
+        builder.append("HTTP/1.1 ").append(status).append(' ').append(reasonPhrase(status)).append("\r\n");
+
+        for(Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for(String value : header.getValue()) {
+                builder.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+
+        if(length > 0) {
+            builder.append("Content-Length: ").append(length).append("\r\n");
+            remainingLength = length;
+        }
+        else if(length == 0) {
+            builder.append("Transfer-Encoding: chunked\r\n");
+            chunked = true;
+        }
+        else if(status != 204 && status != 304 && status >= 200
+                && !"HEAD".equals(head.method) && !responseHeaders.containsKey("Content-Length")) {
+            builder.append("Content-Length: 0\r\n");
+        }
+
+        if(!keepAlive) {
+            builder.append("Connection: close\r\n");
+        }
+        else if("HTTP/1.0".equals(head.version)) {
+            builder.append("Connection: keep-alive\r\n");
+        }
+
+        builder.append("\r\n");
+        connection.enqueue(ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.ISO_8859_1)));
+
+        if(length < 0) {
+            finished = true;
+            connection.completeResponse(!keepAlive);
+        }
+    }
+
+    @Override
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseStream;
+    }
+
+    /**
+     * Maps the file and queues the mapped regions, which the event loop writes to the socket straight
+     * from the page cache. Chunked responses fall back to the copying default.
+     */
+    @Override
+    public void sendFile(FileChannel file, long position, long count) throws IOException {
+        if(!headersSent || chunked) {
+            ServerExchange.super.sendFile(file, position, count);
+            return;
+        }
+
+        responseStream.flush();
+        responseStream.checkWritable(count);
+
+        long end = position + count;
+        while(position < end) {
+            long length = Math.min(MAPPED_REGION_SIZE, end - position);
+            connection.ensureOpen();
+            connection.enqueue(file.map(FileChannel.MapMode.READ_ONLY, position, length));
+            position += length;
+        }
+    }
+
+    @Override
+    public void close() {
+        if(finished) return;
+
+        if(!headersSent) {
+            finished = true;
+            connection.abort();
+            return;
+        }
+
+        try {
+            responseStream.close();
+        }
+        catch (IOException e) {
+            abort();
+        }
+    }
+
+    /**
+     * Completes the response once the body stream is closed, as the JDK exchange does.
+     */
+    private void finish() {
+        if(finished) return;
+        finished = true;
+
+        boolean truncated = !chunked && remainingLength > 0;
+        connection.completeResponse(truncated || !head.isKeepAlive());
+    }
+
+    /**
+     * Drops the connection without completing the response, used when a handler fails unexpectedly.
+     */
+    void abort() {
+        if(finished) return;
+        finished = true;
+        connection.abort();
+    }
+
+    static String reasonPhrase(int status) {
+        switch (status) {
+            case 100: return "Continue";
+            case 200: return "OK";
+            case 201: return "Created";
+            case 202: return "Accepted";
+            case 204: return "No Content";
+            case 206: return "Partial Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 406: return "Not Acceptable";
+            case 408: return "Request Timeout";
+            case 413: return "Payload Too Large";
+            case 415: return "Unsupported Media Type";
+            case 416: return "Range Not Satisfiable";
+            case 429: return "Too Many Requests";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 503: return "Service Unavailable";
+            case 504: return "Gateway Timeout";
+            default: return "Status " + status;
+        }
+    }
+
+    private class ResponseStream extends OutputStream {
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            checkWritable(1);
+            if(count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            checkWritable(length);
+
+            if(length >= buffer.length) {
+                flushBuffer();
+                emit(bytes, offset, length, false);
+                return;
+            }
+
+            if(count + length > buffer.length) {
+                flushBuffer();
+            }
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if(!closed) {
+                flushBuffer();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(closed || finished) return;
+            if(!headersSent) {
+                abort();
+                return;
+            }
+
+            flushBuffer();
+            closed = true;
+
+            if(chunked) {
+                connection.enqueue(ByteBuffer.wrap(LAST_CHUNK));
+            }
+            finish();
+        }
+
+        private void checkWritable(long length) throws IOException {
+            if(!headersSent) {
+                throw new IOException("Response headers not sent yet");
+            }
+            if(closed) {
+                throw new IOException("Response stream closed");
+            }
+            connection.ensureOpen();
+
+            if(!chunked) {
+                if(length > remainingLength) {
+                    throw new IOException("Too many bytes for the declared Content-Length");
+                }
+                remainingLength -= length;
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            if(count == 0) return;
+
+            emit(buffer, 0, count, true);
+            count = 0;
+        }
+
+        /**
+         * Hands the bytes to the connection. Our own buffer is given away and replaced, caller arrays are copied.
+         */
+        private void emit(byte[] bytes, int offset, int length, boolean owned) throws IOException {
+            connection.ensureOpen();
+
+            if(chunked) {
+                byte[] size = (Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+                byte[] frame = new byte[size.length + length + CRLF.length];
+                System.arraycopy(size, 0, frame, 0, size.length);
+                System.arraycopy(bytes, offset, frame, size.length, length);
+                System.arraycopy(CRLF, 0, frame, size.length + length, CRLF.length);
+                connection.enqueue(ByteBuffer.wrap(frame));
+                return;
+            }
+
+            if(owned) {
+                connection.enqueue(ByteBuffer.wrap(bytes, offset, length));
+                buffer = new byte[BUFFER_SIZE];
+            }
+            else {
+                byte[] copy = new byte[length];
+                System.arraycopy(bytes, offset, copy, 0, length);
+                connection.enqueue(ByteBuffer.wrap(copy));
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface RequestHandler {
+    void handle(ServerExchange exchange) throws IOException;
+}
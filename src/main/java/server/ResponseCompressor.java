@@ -0,0 +1,236 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import metrics.MetricsRegistry;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiates {@code Accept-Encoding} and streams compressed bodies straight into the exchange.
+ * Controlled by the {@code server.compression.*} keys; routes opt out with {@code @NoCompression}.
+ */
+public class ResponseCompressor {
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    private static final LongAdder gzipResponses = MetricsRegistry.counter("lightcore_compression_responses_total{encoding=\"gzip\"}");
+    private static final LongAdder deflateResponses = MetricsRegistry.counter("lightcore_compression_responses_total{encoding=\"deflate\"}");
+    private static final LongAdder bytesIn = MetricsRegistry.counter("lightcore_compression_bytes_in_total");
+    private static final LongAdder bytesOut = MetricsRegistry.counter("lightcore_compression_bytes_out_total");
+    private static final LongAdder compressionNanos = MetricsRegistry.counter("lightcore_compression_nanos_total");
+
+    /**
+     * Picks the preferred supported encoding from the request's Accept-Encoding header.
+     *
+     * @param acceptEncoding the header value, may be null
+     * @return "gzip", "deflate" or null if neither is acceptable
+     */
+    public static String negotiate(String acceptEncoding) {
+        if(acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = 0;
+
+        for(String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1.0;
+
+            for(int i = 1 ; i < parts.length ; i++) {
+                String parameter = parts[i].trim();
+                if(parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    }
+                    catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "deflate" -> deflate = quality;
+                case "*" -> wildcard = quality;
+                default -> { }
+            }
+        }
+
+        // Codings not listed explicitly inherit the quality of "*"
+        if(gzip < 0) gzip = wildcard;
+        if(deflate < 0) deflate = wildcard;
+
+        if(gzip > 0 && gzip >= deflate) return "gzip";
+        if(deflate > 0) return "deflate";
+        return null;
+    }
+
+    /**
+     * Decides whether a response of the given size is compressed, adding {@code Vary} when the answer
+     * depends on the request headers.
+     *
+     * @param exchange     the exchange being answered
+     * @param length       the uncompressed body length, or -1 if unknown (streamed)
+     * @param compressible false if the route opted out with @NoCompression
+     * @return the encoding to apply, or null to send the body as is
+     */
+    public static String selectEncoding(ServerExchange exchange, long length, boolean compressible) {
+        ServerConfig config = HTTPServerStarter.getActiveConfig();
+
+        if(!compressible || !config.isCompressionEnabled()) {
+            return null;
+        }
+
+        exchange.addResponseHeader("Vary", "Accept-Encoding");
+
+        if(length >= 0 && length < config.getCompressionMinSize()) {
+            return null;
+        }
+
+        return negotiate(exchange.getRequestHeader("Accept-Encoding"));
+    }
+
+    /**
+     * Sends a complete response body, compressing it when the route, the configuration, the body size and
+     * the client all allow it.
+     *
+     * @param exchange     the exchange to respond to
+     * @param status       the HTTP status
+     * @param body         the array holding the uncompressed body
+     * @param length       the number of body bytes in the array
+     * @param compressible false if the route opted out with @NoCompression
+     * @throws IOException if writing fails
+     */
+    public static void send(ServerExchange exchange, int status, byte[] body, int length, boolean compressible) throws IOException {
+        send(exchange, status, body, length, selectEncoding(exchange, length, compressible));
+    }
+
+    /**
+     * Sends a complete response body with an encoding already chosen by {@link #selectEncoding}.
+     *
+     * @param encoding the content coding to apply, or null to send the body as is
+     */
+    public static void send(ServerExchange exchange, int status, byte[] body, int length, String encoding) throws IOException {
+        if(encoding == null) {
+            exchange.sendResponseHeaders(status, length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body, 0, length);
+            }
+            return;
+        }
+
+        try (OutputStream os = openCompressed(exchange, status, encoding)) {
+            os.write(body, 0, length);
+        }
+    }
+
+    /**
+     * Starts a chunked response and returns the stream to write its body to, compressed with the given
+     * encoding. Closing the stream completes the response and records the compression metrics.
+     */
+    public static OutputStream openCompressed(ServerExchange exchange, int status, String encoding) throws IOException {
+        exchange.setResponseHeader("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(status, 0);
+
+        CountingOutputStream counter = new CountingOutputStream(exchange.getResponseBody());
+        return new MeteredStream(wrap(counter, encoding, HTTPServerStarter.getActiveConfig().getCompressionLevel()), counter, encoding);
+    }
+
+    private static OutputStream wrap(OutputStream out, String encoding, int level) throws IOException {
+        if("gzip".equals(encoding)) {
+            return new GZIPOutputStream(out, STREAM_BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        return new DeflaterOutputStream(out, new Deflater(level), STREAM_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                def.end();
+            }
+        };
+    }
+
+    /**
+     * Counts the uncompressed bytes and the time spent compressing, and publishes them on close.
+     */
+    private static class MeteredStream extends FilterOutputStream {
+        private final CountingOutputStream compressedCounter;
+        private final String encoding;
+        private long uncompressed;
+        private long nanos;
+        private boolean closed;
+
+        MeteredStream(OutputStream out, CountingOutputStream compressedCounter, String encoding) {
+            super(out);
+            this.compressedCounter = compressedCounter;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long started = System.nanoTime();
+            out.write(b);
+            uncompressed++;
+            nanos += System.nanoTime() - started;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            long started = System.nanoTime();
+            out.write(bytes, offset, length);
+            uncompressed += length;
+            nanos += System.nanoTime() - started;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(closed) return;
+            closed = true;
+
+            long started = System.nanoTime();
+            out.close();
+            nanos += System.nanoTime() - started;
+
+            ("gzip".equals(encoding) ? gzipResponses : deflateResponses).increment();
+            bytesIn.add(uncompressed);
+            bytesOut.add(compressedCounter.count);
+            compressionNanos.add(nanos);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
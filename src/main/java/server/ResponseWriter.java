@@ -0,0 +1,263 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import json.DataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Writes response bodies without intermediate Strings or per-request byte arrays. JSON, or the binary
+ * {@link DataFormat} the client negotiated, is serialized
+ * straight into a pooled buffer; bodies that fit in {@code server.response.bufferSize} go out with a
+ * Content-Length, larger ones switch to chunked framing as soon as the buffer overflows.
+ */
+public class ResponseWriter {
+    public static final String JSON_CONTENT_TYPE = DataFormat.JSON.getContentType();
+    public static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private static final byte[] NOT_FOUND = "404 Not Found".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_TOO_LARGE = "413 Payload Too Large".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERVICE_UNAVAILABLE = "503 Service Unavailable".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOO_MANY_REQUESTS = "429 Too Many Requests".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INTERNAL_SERVER_ERROR = "500 Internal Server Error".getBytes(StandardCharsets.UTF_8);
+
+    private static final int POOL_CAPACITY = 128;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    // Bounded so a burst of concurrent requests cannot pin memory; extra buffers are simply dropped
+    private static final ArrayBlockingQueue<ResponseBuffer> pool = new ArrayBlockingQueue<>(POOL_CAPACITY);
+
+    /**
+     * Serializes a value as the JSON body of the response and completes the exchange.
+     *
+     * @param exchange     the exchange to respond to
+     * @param status       the HTTP status
+     * @param value        the value to serialize, must not be null
+     * @param compressible false if the route opted out with @NoCompression
+     * @throws IOException if serialization or writing fails
+     */
+    public static void writeJson(ServerExchange exchange, int status, Object value, boolean compressible) throws IOException {
+        write(exchange, status, value, DataFormat.JSON, compressible);
+    }
+
+    /**
+     * Serializes a value in the given data format as the body of the response and completes the exchange.
+     *
+     * @param format the format negotiated with {@link DataFormat#negotiate}
+     */
+    public static void write(ServerExchange exchange, int status, Object value, DataFormat format, boolean compressible) throws IOException {
+        exchange.setResponseHeader("Content-Type", format.getContentType());
+
+        ResponseBuffer buffer = acquire();
+        try {
+            buffer.open(exchange, status, compressible);
+            format.writer(value.getClass()).writeValue(buffer, value);
+            buffer.finish();
+        }
+        finally {
+            release(buffer);
+        }
+
+        exchange.close();
+    }
+
+    /**
+     * Sends a body already serialized in the given data format, e.g. one served from the response cache,
+     * and completes the exchange.
+     *
+     * @param encoding the content coding chosen with {@link ResponseCompressor#selectEncoding}, or null
+     */
+    public static void write(ServerExchange exchange, int status, byte[] body, DataFormat format, String encoding) throws IOException {
+        exchange.setResponseHeader("Content-Type", format.getContentType());
+        ResponseCompressor.send(exchange, status, body, body.length, encoding);
+        exchange.close();
+    }
+
+    /**
+     * Sends a text body, compressed when the client allows it, and completes the exchange.
+     */
+    public static void writeText(ServerExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.setResponseHeader("Content-Type", contentType);
+        ResponseCompressor.send(exchange, status, body, body.length, true);
+        exchange.close();
+    }
+
+    /**
+     * Answers with a status and no body.
+     */
+    public static void sendEmpty(ServerExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    public static void sendNotFound(ServerExchange exchange) throws IOException {
+        send(exchange, 404, NOT_FOUND);
+    }
+
+    public static void sendPayloadTooLarge(ServerExchange exchange) throws IOException {
+        send(exchange, 413, PAYLOAD_TOO_LARGE);
+    }
+
+    public static void sendInternalError(ServerExchange exchange) throws IOException {
+        send(exchange, 500, INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Rejects a request over the client's rate limit, telling the client when to retry.
+     */
+    public static void sendTooManyRequests(ServerExchange exchange, int retryAfterSeconds) throws IOException {
+        exchange.setResponseHeader("Retry-After", Integer.toString(retryAfterSeconds));
+        send(exchange, 429, TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Sheds a request the server has no capacity for, telling the client when to retry.
+     */
+    public static void sendServiceUnavailable(ServerExchange exchange, int retryAfterSeconds) throws IOException {
+        exchange.setResponseHeader("Retry-After", Integer.toString(retryAfterSeconds));
+        send(exchange, 503, SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Answers with a plain text message built at runtime, such as the one of an {@link HttpStatusException}.
+     */
+    public static void sendError(ServerExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(ServerExchange exchange, int status, byte[] body) throws IOException {
+        exchange.setResponseHeader("Content-Type", TEXT_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+
+        OutputStream os = exchange.getResponseBody();
+        os.write(body);
+        os.close();
+
+        exchange.close();
+    }
+
+    private static ResponseBuffer acquire() {
+        ResponseBuffer buffer = pool.poll();
+        return buffer != null ? buffer : new ResponseBuffer();
+    }
+
+    private static void release(ResponseBuffer buffer) {
+        buffer.reset();
+        pool.offer(buffer);
+    }
+
+    /**
+     * Growable byte buffer that spills into a chunked response once it holds more than the configured
+     * limit. {@link #close()} is a no-op because Jackson closes its target; {@link #finish()} sends the body.
+     */
+    private static class ResponseBuffer extends OutputStream {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int count;
+        private int limit;
+
+        private ServerExchange exchange;
+        private int status;
+        private boolean compressible;
+        private OutputStream spill;
+
+        void open(ServerExchange exchange, int status, boolean compressible) {
+            this.exchange = exchange;
+            this.status = status;
+            this.compressible = compressible;
+            this.limit = HTTPServerStarter.getActiveConfig().getResponseBufferSize();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if(spill != null) {
+                spill.write(b);
+                return;
+            }
+
+            if(count == limit) {
+                startSpill().write(b);
+                return;
+            }
+
+            ensureCapacity(count + 1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] source, int offset, int length) throws IOException {
+            if(spill != null) {
+                spill.write(source, offset, length);
+                return;
+            }
+
+            if(count + length > limit) {
+                startSpill().write(source, offset, length);
+                return;
+            }
+
+            ensureCapacity(count + length);
+            System.arraycopy(source, offset, bytes, count, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+            // Buffered until finish() so small bodies keep their Content-Length
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void finish() throws IOException {
+            if(spill != null) {
+                spill.close();
+                return;
+            }
+
+            ResponseCompressor.send(exchange, status, bytes, count, compressible);
+        }
+
+        private OutputStream startSpill() throws IOException {
+            String encoding = ResponseCompressor.selectEncoding(exchange, -1, compressible);
+
+            if(encoding != null) {
+                spill = ResponseCompressor.openCompressed(exchange, status, encoding);
+            }
+            else {
+                exchange.sendResponseHeaders(status, 0);
+                spill = exchange.getResponseBody();
+            }
+
+            spill.write(bytes, 0, count);
+            count = 0;
+            return spill;
+        }
+
+        private void ensureCapacity(int required) {
+            if(required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, Math.min(limit, bytes.length * 2)));
+            }
+        }
+
+        void reset() {
+            count = 0;
+            exchange = null;
+            spill = null;
+
+            // Never keep more than the configured limit alive in the pool
+            if(bytes.length > Math.max(INITIAL_BUFFER_SIZE, limit)) {
+                bytes = new byte[INITIAL_BUFFER_SIZE];
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot of the "server.*" keys of config.properties.
+ * A new instance re-reads the file, so callers can build a fresh snapshot after a config change.
+ */
+public class ServerConfig {
+    private static final Logger logger = Logger.getLogger(ServerConfig.class.getName());
+
+    private static final String CONFIG_FILE_PATH = "src/main/resources/lightcoreconfig/config.properties";
+
+    public static final int DEFAULT_SERVER_PORT = 9123;
+    private static final int DEFAULT_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final Properties properties = new Properties();
+    private final List<String> allowedOrigins;
+    private final Path staticDir;
+    private final String staticPrefix;
+
+    public ServerConfig() {
+        File file = new File(CONFIG_FILE_PATH);
+
+        if(!file.exists()) {
+            logger.info("config.properties not found. Using default server configuration");
+        }
+        else {
+            try (InputStream inputStream = new FileInputStream(file)) {
+                properties.load(inputStream);
+            }
+            catch (IOException e) {
+                logger.info("Error reading config. Using default server configuration");
+            }
+        }
+
+        this.allowedOrigins = Arrays.stream(properties.getProperty("server.allowedOrigins", "*").split(","))
+                                    .map(String::trim)
+                                    .filter(origin -> !origin.isEmpty())
+                                    .collect(Collectors.toUnmodifiableList());
+
+        String dir = getString("server.static.dir", "");
+        this.staticDir = dir.isEmpty() ? null : Paths.get(dir).toAbsolutePath().normalize();
+
+        String prefix = getString("server.static.prefix", "/static");
+        this.staticPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    public int getPort() {
+        return getInt("server.port", DEFAULT_SERVER_PORT);
+    }
+
+    public boolean isCrossOriginEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("server.crossOrigin", "false"));
+    }
+
+    public List<String> getAllowedOrigins() {
+        return allowedOrigins;
+    }
+
+    /**
+     * @return seconds an old listener may keep serving in-flight requests after a port change
+     */
+    public int getDrainTimeout() {
+        return getInt("server.drainTimeout", 30);
+    }
+
+    /**
+     * @return the HTTP engine: "jdk" (com.sun.net.httpserver) or "nio" (selector-based, keep-alive aware)
+     */
+    public String getEngine() {
+        return getString("server.engine", "jdk").toLowerCase();
+    }
+
+    public int getBacklog() {
+        return getInt("server.backlog", 1024);
+    }
+
+    /**
+     * @return threads accepting connections for the nio engine
+     */
+    public int getAcceptors() {
+        return getInt("server.nio.acceptors", 1);
+    }
+
+    public int getEventLoops() {
+        return getInt("server.nio.eventLoops", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return seconds an idle keep-alive connection is kept open by the NIO engine
+     */
+    public int getKeepAliveTimeout() {
+        return getInt("server.keepAliveTimeout", 30);
+    }
+
+    public boolean isTcpNoDelay() {
+        return Boolean.parseBoolean(getString("server.tcpNoDelay", "true"));
+    }
+
+    /**
+     * @return the largest accepted request body in bytes; bigger requests are answered with 413
+     */
+    public long getMaxBodySize() {
+        return getLong("server.maxBodySize", 10L * 1024 * 1024);
+    }
+
+    /**
+     * @return how many bytes of a response are buffered before it switches from fixed-length to chunked framing
+     */
+    public int getResponseBufferSize() {
+        return Math.max(1024, getInt("server.response.bufferSize", 64 * 1024));
+    }
+
+    /**
+     * @return bytes buffered by streamed responses before a chunk is written
+     */
+    public int getStreamFlushSize() {
+        return Math.max(512, getInt("server.stream.flushSize", 16 * 1024));
+    }
+
+    /**
+     * @return upper bound, in bytes, of the responses kept by {@code @Cacheable} routes
+     */
+    public long getCacheMaxBytes() {
+        return getLong("server.cache.maxBytes", 64L * 1024 * 1024);
+    }
+
+    /**
+     * @return how many requests may execute routes at the same time, 0 to disable the global limit
+     */
+    public int getAdmissionMaxConcurrent() {
+        return getInt("server.admission.maxConcurrent", 256);
+    }
+
+    public int getAdmissionQueueSize() {
+        return getInt("server.admission.queueSize", 512);
+    }
+
+    /**
+     * @return milliseconds a request waits for an execution slot before it is shed with 503
+     */
+    public long getAdmissionMaxWait() {
+        return getLong("server.admission.maxWait", 1000);
+    }
+
+    /**
+     * @return the Retry-After value, in seconds, sent with 503 responses
+     */
+    public int getAdmissionRetryAfter() {
+        return getInt("server.admission.retryAfter", 1);
+    }
+
+    /**
+     * @return milliseconds an async controller may take to complete its CompletionStage before the
+     * request is answered with 504
+     */
+    public long getAsyncTimeout() {
+        return getLong("server.async.timeout", 30_000);
+    }
+
+    /**
+     * @return threads running async repository methods
+     */
+    public int getRepositoryThreads() {
+        return Math.max(1, getInt("server.async.repositoryThreads", DEFAULT_POOL_SIZE));
+    }
+
+    /**
+     * @return async repository calls waiting for a free thread before new ones are rejected with 503
+     */
+    public int getRepositoryQueueCapacity() {
+        return Math.max(1, getInt("server.async.repositoryQueue", DEFAULT_QUEUE_CAPACITY));
+    }
+
+    public boolean isMetricsEnabled() {
+        return Boolean.parseBoolean(getString("server.metrics.enabled", "true"));
+    }
+
+    /**
+     * @return true if clients other than the local host may read the metrics endpoint. Metrics are not
+     * authenticated, so by default only loopback addresses are served
+     */
+    public boolean isMetricsRemoteAllowed() {
+        return Boolean.parseBoolean(getString("server.metrics.allowRemote", "false"));
+    }
+
+    /**
+     * @return the path serving all metrics in Prometheus text format
+     */
+    public String getMetricsPath() {
+        return getString("server.metrics.path", "/lightcore/metrics");
+    }
+
+    public boolean isBatchEnabled() {
+        return Boolean.parseBoolean(getString("server.batch.enabled", "true"));
+    }
+
+    /**
+     * @return the path accepting POSTed batches of sub-requests
+     */
+    public String getBatchPath() {
+        return getString("server.batch.path", "/lightcore/batch");
+    }
+
+    /**
+     * @return the largest number of sub-requests accepted in one batch
+     */
+    public int getBatchMaxRequests() {
+        return Math.max(1, getInt("server.batch.maxRequests", 20));
+    }
+
+    /**
+     * @return how many sub-requests of one batch may run at the same time
+     */
+    public int getBatchParallelism() {
+        return Math.max(1, getInt("server.batch.parallelism", 4));
+    }
+
+    public boolean isTracingEnabled() {
+        return Boolean.parseBoolean(getString("server.tracing.enabled", "false"));
+    }
+
+    /**
+     * @return whether traced responses carry their span durations in a Server-Timing header
+     */
+    public boolean isServerTimingEnabled() {
+        return isTracingEnabled() && Boolean.parseBoolean(getString("server.tracing.serverTiming", "true"));
+    }
+
+    /**
+     * @return the fraction of traced requests, between 0 and 1, whose span breakdown is logged
+     */
+    public double getTracingSampleRate() {
+        return Math.max(0, Math.min(1, getDouble("server.tracing.sampleRate", 0.01)));
+    }
+
+    /**
+     * @return milliseconds above which a traced request is always logged, 0 to log by sampling only
+     */
+    public long getTracingSlowThreshold() {
+        return getLong("server.tracing.slowThreshold", 0);
+    }
+
+    public boolean isStaticEnabled() {
+        return staticDir != null;
+    }
+
+    /**
+     * @return the absolute directory served by the static file handler, or null if none is configured
+     */
+    public Path getStaticDir() {
+        return staticDir;
+    }
+
+    /**
+     * @return the URL prefix of static files, always ending with "/"
+     */
+    public String getStaticPrefix() {
+        return staticPrefix;
+    }
+
+    /**
+     * @return the Cache-Control max-age of static files in seconds, 0 to send no Cache-Control
+     */
+    public int getStaticMaxAge() {
+        return getInt("server.static.maxAge", 0);
+    }
+
+    public boolean isCompressionEnabled() {
+        return Boolean.parseBoolean(getString("server.compression.enabled", "true"));
+    }
+
+    /**
+     * @return the smallest body, in bytes, worth compressing
+     */
+    public int getCompressionMinSize() {
+        return getInt("server.compression.minSize", 1024);
+    }
+
+    public int getCompressionLevel() {
+        return Math.max(1, Math.min(9, getInt("server.compression.level", 6)));
+    }
+
+    /**
+     * @return the request execution model: "pool" (bounded platform threads), "virtual"
+     * (one virtual thread per request, Java 21+) or "dispatcher" (single HttpServer dispatcher thread)
+     */
+    public String getExecutor() {
+        return getString("server.executor", "pool").toLowerCase();
+    }
+
+    public int getExecutorPoolSize() {
+        return getInt("server.executor.poolSize", DEFAULT_POOL_SIZE);
+    }
+
+    public int getExecutorQueueCapacity() {
+        return getInt("server.executor.queueCapacity", DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @return the policy applied when the pool queue is full: "abort" (answer 503) or "caller-runs"
+     */
+    public String getExecutorRejectionPolicy() {
+        return getString("server.executor.rejectionPolicy", "abort").toLowerCase();
+    }
+
+    private String getString(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    private long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+
+        if(value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException e) {
+            logger.info("Invalid value for " + key + ". Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+
+        if(value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e) {
+            logger.info("Invalid value for " + key + ". Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+
+        if(value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e) {
+            logger.info("Invalid value for " + key + ". Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Engine-neutral view of a single HTTP request/response pair.
+ * The response contract follows {@link com.sun.net.httpserver.HttpExchange}: a length of 0 in
+ * {@link #sendResponseHeaders(int, long)} selects chunked encoding, -1 means no body, and the exchange
+ * must be closed once the response is complete.
+ */
+public interface ServerExchange {
+    String getRequestMethod();
+
+    /**
+     * @return the decoded request path, without the query string
+     */
+    String getRequestPath();
+
+    /**
+     * @return the raw (still URL-encoded) query string, or null if the request has none
+     */
+    String getRequestQuery();
+
+    /**
+     * @param name the header name, matched case-insensitively
+     * @return the first value of the header, or null if absent
+     */
+    String getRequestHeader(String name);
+
+    InputStream getRequestBody();
+
+    InetSocketAddress getRemoteAddress();
+
+    void setResponseHeader(String name, String value);
+
+    void addResponseHeader(String name, String value);
+
+    void sendResponseHeaders(int status, long length) throws IOException;
+
+    /**
+     * @return the status passed to {@link #sendResponseHeaders}, or -1 if the headers were not sent yet
+     */
+    int getResponseStatus();
+
+    OutputStream getResponseBody();
+
+    /**
+     * Writes a region of a file to the response body, after the headers have been sent. The default
+     * implementation uses {@link FileChannel#transferTo}; engines owning the socket write the file pages
+     * without copying them through the heap.
+     *
+     * @param file     the open file
+     * @param position offset of the first byte to send
+     * @param count    number of bytes to send
+     * @throws IOException if reading the file or writing the response fails
+     */
+    default void sendFile(FileChannel file, long position, long count) throws IOException {
+        WritableByteChannel target = Channels.newChannel(getResponseBody());
+
+        while(count > 0) {
+            long transferred = file.transferTo(position, count, target);
+            if(transferred <= 0) {
+                throw new IOException("File truncated while sending");
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    void close();
+}
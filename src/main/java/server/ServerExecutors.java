@@ -0,0 +1,176 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import metrics.MetricsRegistry;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Builds the executor that runs request handlers, as selected by {@code server.executor} in config.properties,
+ * and publishes its sizing metrics.
+ */
+public class ServerExecutors {
+    private static final Logger logger = Logger.getLogger(ServerExecutors.class.getName());
+
+    private static final LongAdder rejected = MetricsRegistry.counter("lightcore_executor_rejected_total");
+    private static final AtomicInteger virtualInFlight = new AtomicInteger();
+
+    private static volatile ExecutorService current;
+    private static volatile String infoGauge;
+
+    static {
+        MetricsRegistry.gauge("lightcore_executor_pool_size", () -> pool() != null ? pool().getPoolSize() : 0);
+        MetricsRegistry.gauge("lightcore_executor_active_threads", () -> pool() != null ? pool().getActiveCount() : virtualInFlight.get());
+        MetricsRegistry.gauge("lightcore_executor_queue_depth", () -> pool() != null ? pool().getQueue().size() : 0);
+        MetricsRegistry.gauge("lightcore_executor_queue_remaining_capacity", () -> pool() != null ? pool().getQueue().remainingCapacity() : 0);
+        MetricsRegistry.gauge("lightcore_executor_completed_tasks", () -> pool() != null ? pool().getCompletedTaskCount() : 0);
+    }
+
+    /**
+     * Creates the request executor described by the given configuration.
+     *
+     * @param config the server configuration
+     * @return the executor to hand to the server, or null to run handlers on the dispatcher thread
+     */
+    public static ExecutorService create(ServerConfig config) {
+        String mode = config.getExecutor();
+        ExecutorService executor;
+
+        switch (mode) {
+            case "dispatcher" -> executor = null;
+            case "virtual" -> {
+                executor = newVirtualThreadExecutor();
+                if(executor == null) {
+                    logger.info("Virtual threads require Java 21+. Falling back to a bounded thread pool");
+                    mode = "pool";
+                    executor = newBoundedPool(config);
+                }
+            }
+            default -> {
+                if(!"pool".equals(mode)) {
+                    logger.info("Unknown server.executor '" + mode + "'. Using a bounded thread pool");
+                    mode = "pool";
+                }
+                executor = newBoundedPool(config);
+            }
+        }
+
+        current = executor;
+        publishInfo(mode, config);
+        logger.info("Request executor: " + mode);
+
+        return executor;
+    }
+
+    private static ThreadPoolExecutor newBoundedPool(ServerConfig config) {
+        int poolSize = Math.max(1, config.getExecutorPoolSize());
+        int queueCapacity = Math.max(1, config.getExecutorQueueCapacity());
+
+        // Abort lets the engine answer 503; caller-runs makes the accepting thread handle the request itself
+        RejectedExecutionHandler rejectionHandler = "caller-runs".equals(config.getExecutorRejectionPolicy())
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new WorkerThreadFactory(),
+                (task, executor) -> {
+                    rejected.increment();
+                    rejectionHandler.rejectedExecution(task, executor);
+                });
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
+    }
+
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor reflectively so the framework still runs on older JDKs.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            ExecutorService delegate = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+
+            return new AbstractExecutorService() {
+                @Override
+                public void execute(Runnable command) {
+                    virtualInFlight.incrementAndGet();
+                    delegate.execute(() -> {
+                        try {
+                            command.run();
+                        }
+                        finally {
+                            virtualInFlight.decrementAndGet();
+                        }
+                    });
+                }
+
+                @Override
+                public void shutdown() {
+                    delegate.shutdown();
+                }
+
+                @Override
+                public java.util.List<Runnable> shutdownNow() {
+                    return delegate.shutdownNow();
+                }
+
+                @Override
+                public boolean isShutdown() {
+                    return delegate.isShutdown();
+                }
+
+                @Override
+                public boolean isTerminated() {
+                    return delegate.isTerminated();
+                }
+
+                @Override
+                public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+                    return delegate.awaitTermination(timeout, unit);
+                }
+            };
+        }
+        catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static void publishInfo(String mode, ServerConfig config) {
+        if(infoGauge != null) {
+            MetricsRegistry.removeGauge(infoGauge);
+        }
+
+        String policy = "pool".equals(mode) ? config.getExecutorRejectionPolicy() : "none";
+        infoGauge = "lightcore_executor_info{mode=\"" + mode + "\",rejection_policy=\"" + policy + "\"}";
+        MetricsRegistry.gauge(infoGauge, () -> 1);
+        long queueCapacity = "pool".equals(mode) ? Math.max(1, config.getExecutorQueueCapacity()) : 0;
+        MetricsRegistry.gauge("lightcore_executor_queue_capacity", () -> queueCapacity);
+    }
+
+    private static ThreadPoolExecutor pool() {
+        ExecutorService executor = current;
+        return executor instanceof ThreadPoolExecutor ? (ThreadPoolExecutor) executor : null;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "lightcore-worker-" + counter.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import cache.ResponseCache;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves files below {@code server.static.dir} under the URL prefix {@code server.static.prefix}.
+ * Bodies are sent with {@link ServerExchange#sendFile}, single byte ranges and conditional GETs
+ * ({@code If-None-Match}, {@code If-Modified-Since}, {@code If-Range}) are honoured, and a precompressed
+ * {@code .gz} sibling is preferred when the client accepts gzip.
+ */
+public class StaticFileHandler {
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+            Map.entry("html", "text/html; charset=utf-8"),
+            Map.entry("htm", "text/html; charset=utf-8"),
+            Map.entry("css", "text/css; charset=utf-8"),
+            Map.entry("js", "text/javascript; charset=utf-8"),
+            Map.entry("mjs", "text/javascript; charset=utf-8"),
+            Map.entry("json", "application/json; charset=utf-8"),
+            Map.entry("map", "application/json; charset=utf-8"),
+            Map.entry("txt", "text/plain; charset=utf-8"),
+            Map.entry("csv", "text/csv; charset=utf-8"),
+            Map.entry("xml", "application/xml; charset=utf-8"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("png", "image/png"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2"),
+            Map.entry("wasm", "application/wasm"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("zip", "application/zip")
+    );
+
+    private static final LongAdder filesSent = MetricsRegistry.counter("lightcore_static_responses_total{status=\"200\"}");
+    private static final LongAdder rangesSent = MetricsRegistry.counter("lightcore_static_responses_total{status=\"206\"}");
+    private static final LongAdder notModified = MetricsRegistry.counter("lightcore_static_responses_total{status=\"304\"}");
+    private static final LongAdder unsatisfiable = MetricsRegistry.counter("lightcore_static_responses_total{status=\"416\"}");
+    private static final LongAdder bytesSent = MetricsRegistry.counter("lightcore_static_bytes_total");
+
+    // The configured static directory and its real path, resolved once per directory
+    private static volatile Path[] realRoot;
+
+    /**
+     * Serves the request if it targets an existing file below the static directory.
+     *
+     * @return false if the request is not for a static file and should be routed as usual
+     * @throws IOException if sending the file fails
+     */
+    public static boolean handle(ServerExchange exchange, ServerConfig config) throws IOException {
+        String method = exchange.getRequestMethod();
+        String prefix = config.getStaticPrefix();
+        String path = exchange.getRequestPath();
+
+        if(!config.isStaticEnabled() || !path.startsWith(prefix)
+                || !("GET".equals(method) || "HEAD".equals(method))) {
+            return false;
+        }
+
+        Path file = resolve(config.getStaticDir(), path.substring(prefix.length()));
+        if(file == null) {
+            return false;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String contentType = contentType(file);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified) + "\"";
+
+        Path gzip = file.resolveSibling(file.getFileName() + ".gz");
+        boolean precompressed = "gzip".equals(ResponseCompressor.negotiate(exchange.getRequestHeader("Accept-Encoding")))
+                && Files.isRegularFile(gzip, LinkOption.NOFOLLOW_LINKS);
+
+        if(precompressed) {
+            attributes = Files.readAttributes(gzip, BasicFileAttributes.class);
+            etag = ResponseCache.etag(etag, "gzip");
+            file = gzip;
+            exchange.setResponseHeader("Content-Encoding", "gzip");
+        }
+
+        if(Files.isRegularFile(gzip, LinkOption.NOFOLLOW_LINKS)) {
+            exchange.addResponseHeader("Vary", "Accept-Encoding");
+        }
+
+        exchange.setResponseHeader("Content-Type", contentType);
+        exchange.setResponseHeader("ETag", etag);
+        exchange.setResponseHeader("Last-Modified", formatDate(lastModified));
+        exchange.setResponseHeader("Accept-Ranges", "bytes");
+        if(config.getStaticMaxAge() > 0) {
+            exchange.setResponseHeader("Cache-Control", "public, max-age=" + config.getStaticMaxAge());
+        }
+
+        if(isNotModified(exchange, etag, lastModified)) {
+            notModified.increment();
+            ResponseWriter.sendEmpty(exchange, 304);
+            return true;
+        }
+
+        long size = attributes.size();
+        long start = 0;
+        long length = size;
+        int status = 200;
+
+        String range = exchange.getRequestHeader("Range");
+        if(range != null && isRangeApplicable(exchange.getRequestHeader("If-Range"), etag, lastModified)) {
+            long[] bounds = parseRange(range, size);
+
+            if(bounds == UNSATISFIABLE) {
+                unsatisfiable.increment();
+                exchange.setResponseHeader("Content-Range", "bytes */" + size);
+                ResponseWriter.sendEmpty(exchange, 416);
+                return true;
+            }
+
+            if(bounds != null) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                status = 206;
+                exchange.setResponseHeader("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+            }
+        }
+
+        if("HEAD".equals(method)) {
+            exchange.setResponseHeader("Content-Length", Long.toString(length));
+            ResponseWriter.sendEmpty(exchange, status);
+            return true;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(length == 0) {
+                ResponseWriter.sendEmpty(exchange, status);
+                return true;
+            }
+
+            exchange.sendResponseHeaders(status, length);
+            exchange.sendFile(channel, start, length);
+
+            OutputStream os = exchange.getResponseBody();
+            os.close();
+        }
+
+        (status == 206 ? rangesSent : filesSent).increment();
+        bytesSent.add(length);
+        exchange.close();
+        return true;
+    }
+
+    /**
+     * Maps the part of the URL after the prefix to a regular file inside the static directory, serving
+     * {@code index.html} for directories. Paths escaping the directory, also through symbolic links, and
+     * hidden files are refused.
+     */
+    private static Path resolve(Path root, String relativePath) throws IOException {
+        Path file = root.resolve(relativePath.replaceFirst("^/+", "")).normalize();
+
+        if(!file.startsWith(root)) {
+            return null;
+        }
+
+        for(Path segment : root.relativize(file)) {
+            if(segment.toString().startsWith(".")) {
+                return null;
+            }
+        }
+
+        if(Files.isDirectory(file)) {
+            file = file.resolve("index.html");
+        }
+
+        if(!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        // The checks above only look at the path text; a symbolic link may still lead out of the root
+        Path realRoot = realRoot(root);
+        return realRoot != null && file.toRealPath().startsWith(realRoot) ? file : null;
+    }
+
+    private static Path realRoot(Path root) {
+        Path[] cached = realRoot;
+        if(cached != null && cached[0].equals(root)) {
+            return cached[1];
+        }
+
+        try {
+            Path real = root.toRealPath();
+            realRoot = new Path[]{root, real};
+            return real;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isNotModified(ServerExchange exchange, String etag, long lastModified) {
+        String ifNoneMatch = exchange.getRequestHeader("If-None-Match");
+        if(ifNoneMatch != null) {
+            return ResponseCache.matches(ifNoneMatch, etag);
+        }
+
+        Instant since = parseDate(exchange.getRequestHeader("If-Modified-Since"));
+        return since != null && lastModified / 1000 <= since.getEpochSecond();
+    }
+
+    /**
+     * A Range is only honoured if the representation named by If-Range, if any, is still the current one.
+     */
+    private static boolean isRangeApplicable(String ifRange, String etag, long lastModified) {
+        if(ifRange == null) {
+            return true;
+        }
+
+        if(ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+
+        Instant date = parseDate(ifRange);
+        return date != null && lastModified / 1000 == date.getEpochSecond();
+    }
+
+    /**
+     * Parses a single byte range. Multiple ranges are not supported and are answered with the full file,
+     * which RFC 9110 permits.
+     *
+     * @return the first and last byte position, {@link #UNSATISFIABLE}, or null to ignore the header
+     */
+    private static long[] parseRange(String header, long size) {
+        if(!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if(dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if(first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if(suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] { Math.max(0, size - suffix), size - 1 };
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+
+            if(start >= size) {
+                return UNSATISFIABLE;
+            }
+            if(end < start) {
+                return null;
+            }
+            return new long[] { start, end };
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot + 1).toLowerCase() : "";
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private static String formatDate(long millis) {
+        return HTTP_DATE.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+
+    private static Instant parseDate(String value) {
+        if(value == null) {
+            return null;
+        }
+
+        try {
+            return ZonedDateTime.parse(value.trim(), HTTP_DATE).toInstant();
+        }
+        catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
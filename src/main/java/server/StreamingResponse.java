@@ -0,0 +1,23 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import java.io.IOException;
+
+/**
+ * Callback form of a streamed controller result. The framework calls {@link #writeTo} once the response
+ * has started, and every item passed to the {@link ItemWriter} is serialized and sent immediately, as an
+ * element of a JSON array or as one NDJSON line.
+ */
+@FunctionalInterface
+public interface StreamingResponse {
+    void writeTo(ItemWriter writer) throws Exception;
+
+    @FunctionalInterface
+    interface ItemWriter {
+        void write(Object item) throws IOException;
+    }
+}
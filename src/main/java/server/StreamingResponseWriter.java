@@ -0,0 +1,174 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import json.DataFormat;
+import metrics.MetricsRegistry;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Sends {@link Stream}, {@link Iterator} and {@link StreamingResponse} results item by item with chunked
+ * transfer encoding. Clients asking for {@code application/x-ndjson} get one JSON document per line,
+ * everyone else an array in the negotiated {@link DataFormat}. At most {@code server.stream.flushSize}
+ * bytes are buffered before a chunk is written, so memory does not grow with the number of items.
+ */
+public class StreamingResponseWriter {
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private static final LongAdder streamedResponses = MetricsRegistry.counter("lightcore_stream_responses_total");
+    private static final LongAdder streamedItems = MetricsRegistry.counter("lightcore_stream_items_total");
+
+    /**
+     * @return true if the controller result is sent item by item
+     */
+    public static boolean isStreaming(Object result) {
+        return result instanceof Stream || result instanceof Iterator || result instanceof StreamingResponse;
+    }
+
+    /**
+     * Streams the result and completes the exchange. Streams and closeable iterators are closed afterwards.
+     * A failure after the first chunk cannot change the status any more; the JSON array is then left unterminated.
+     */
+    public static void write(ServerExchange exchange, Object result, boolean compressible) throws Exception {
+        String accept = exchange.getRequestHeader("Accept");
+        boolean ndjson = acceptsNdjson(accept);
+        DataFormat format = ndjson ? DataFormat.JSON : DataFormat.negotiate(accept);
+        exchange.setResponseHeader("Content-Type", ndjson ? NDJSON_CONTENT_TYPE : format.getContentType());
+
+        String encoding = ResponseCompressor.selectEncoding(exchange, -1, compressible);
+        OutputStream body;
+
+        if(encoding != null) {
+            body = ResponseCompressor.openCompressed(exchange, 200, encoding);
+        }
+        else {
+            exchange.sendResponseHeaders(200, 0);
+            body = exchange.getResponseBody();
+        }
+
+        streamedResponses.increment();
+        ItemSink sink = new ItemSink(body, format, ndjson, HTTPServerStarter.getActiveConfig().getStreamFlushSize());
+
+        if(result instanceof Stream) {
+            try (Stream<?> stream = (Stream<?>) result) {
+                writeAll(stream.iterator(), sink);
+            }
+        }
+        else if(result instanceof Iterator) {
+            try {
+                writeAll((Iterator<?>) result, sink);
+            }
+            finally {
+                if(result instanceof AutoCloseable) {
+                    ((AutoCloseable) result).close();
+                }
+            }
+        }
+        else {
+            ((StreamingResponse) result).writeTo(sink);
+        }
+
+        sink.finish();
+        body.close();
+        exchange.close();
+    }
+
+    private static void writeAll(Iterator<?> iterator, ItemSink sink) throws IOException {
+        while(iterator.hasNext()) {
+            sink.write(iterator.next());
+        }
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        if(accept == null) {
+            return false;
+        }
+
+        for(String range : accept.split(",")) {
+            int semicolon = range.indexOf(';');
+            String mediaType = (semicolon >= 0 ? range.substring(0, semicolon) : range).trim().toLowerCase();
+            double quality = semicolon >= 0 ? DataFormat.quality(range.substring(semicolon + 1)) : 1;
+
+            if((mediaType.equals("application/x-ndjson") || mediaType.equals("application/ndjson")) && quality > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Serializes items into a fixed-size buffer. Jackson's flushes are ignored so that a chunk is only
+     * written when the buffer is full or the stream ends.
+     */
+    private static class ItemSink implements StreamingResponse.ItemWriter {
+        private final ChunkBuffer buffer;
+        private final DataFormat format;
+        private final JsonGenerator generator;
+        private final boolean ndjson;
+
+        ItemSink(OutputStream body, DataFormat format, boolean ndjson, int flushSize) throws IOException {
+            this.buffer = new ChunkBuffer(body, flushSize);
+            this.format = format;
+            this.ndjson = ndjson;
+            this.generator = format.mapper().getFactory().createGenerator(buffer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            if(ndjson) {
+                generator.setRootValueSeparator(null);
+            }
+            else {
+                generator.writeStartArray();
+            }
+        }
+
+        @Override
+        public void write(Object item) throws IOException {
+            if(item == null) {
+                generator.writeNull();
+            }
+            else {
+                format.writer(item.getClass()).writeValue(generator, item);
+            }
+
+            if(ndjson) {
+                generator.writeRaw('\n');
+            }
+
+            streamedItems.increment();
+        }
+
+        void finish() throws IOException {
+            if(!ndjson) {
+                generator.writeEndArray();
+            }
+
+            generator.close();
+            buffer.drain();
+        }
+    }
+
+    private static class ChunkBuffer extends BufferedOutputStream {
+        ChunkBuffer(OutputStream out, int size) {
+            super(out, size);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        void drain() throws IOException {
+            super.flush();
+        }
+    }
+}
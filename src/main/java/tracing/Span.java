@@ -0,0 +1,33 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package tracing;
+
+/**
+ * A timed stage of a request, recorded into its {@link Trace} when closed. Meant for
+ * try-with-resources; when tracing is off the shared {@link #NOOP} span is handed out instead.
+ * The span variable is usually not referenced in the block, so methods opening spans suppress the
+ * {@code try} lint warning.
+ */
+public class Span implements AutoCloseable {
+    static final Span NOOP = new Span(null, null);
+
+    private final Trace trace;
+    private final String name;
+    private final long start;
+
+    Span(Trace trace, String name) {
+        this.trace = trace;
+        this.name = name;
+        this.start = trace != null ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void close() {
+        if(trace != null) {
+            trace.record(name, start, System.nanoTime());
+        }
+    }
+}
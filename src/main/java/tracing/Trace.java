@@ -0,0 +1,105 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package tracing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The spans of one request. Spans may be recorded from several threads, e.g. by repository calls
+ * running in parallel for an async controller, so recording is synchronized.
+ */
+public class Trace {
+    private final String route;
+    private final boolean serverTiming;
+    private final long start = System.nanoTime();
+    private final List<Entry> spans = new ArrayList<>(8);
+
+    private static class Entry {
+        final String name;
+        final long start;
+        final long end;
+
+        Entry(String name, long start, long end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    Trace(String route, boolean serverTiming) {
+        this.route = route;
+        this.serverTiming = serverTiming;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * @return whether the response should carry a Server-Timing header built from this trace
+     */
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    /**
+     * Starts a span of this trace; close it to record it.
+     */
+    public Span span(String name) {
+        return new Span(this, name);
+    }
+
+    synchronized void record(String name, long start, long end) {
+        spans.add(new Entry(name, start, end));
+    }
+
+    long elapsed() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return the spans as a Server-Timing header value, durations of spans sharing a name summed
+     */
+    public synchronized String toServerTiming() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for(Entry span : spans) {
+            totals.merge(span.name, span.end - span.start, Long::sum);
+        }
+
+        StringBuilder header = new StringBuilder();
+        for(Map.Entry<String, Long> total : totals.entrySet()) {
+            if(header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(total.getKey()).append(";dur=").append(millis(total.getValue()));
+        }
+
+        return header.toString();
+    }
+
+    /**
+     * @return one line per span with its offset from the start of the request and its duration
+     */
+    synchronized String toLogString(int status, long elapsed) {
+        StringBuilder log = new StringBuilder();
+        log.append(route).append(" -> ").append(status).append(" in ").append(millis(elapsed)).append(" ms");
+
+        for(Entry span : spans) {
+            log.append("\n  +").append(millis(span.start - start)).append(" ms ")
+               .append(span.name).append(' ').append(millis(span.end - span.start)).append(" ms");
+        }
+
+        return log.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,82 @@
+// LightCore Framework
+// (c) 2025 Gabriele Difalco
+// Licensed under the LightCore License – Limited Source Use
+// SPDX-License-Identifier: LicenseRef-LightCore
+
+package tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Request-scoped tracing. The server starts a {@link Trace} per routed request and binds it to the
+ * handling thread; framework code down the call chain (binding, controller, repository proxy, Node
+ * executor) opens spans with {@link #span(String)} without the trace being passed around. Code that
+ * hops threads captures {@link #current()} and re-binds it with {@link #attach(Trace)}.
+ */
+public class Tracer {
+    private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+
+    private static final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+    /**
+     * @param serverTiming whether the spans will be sent as a Server-Timing header
+     * @param logging      whether finished traces may be logged, by sampling or for being slow
+     * @return a new trace, or null if neither output is wanted
+     */
+    public static Trace start(String route, boolean serverTiming, boolean logging) {
+        return serverTiming || logging ? new Trace(route, serverTiming) : null;
+    }
+
+    /**
+     * @return the trace bound to this thread, or null
+     */
+    public static Trace current() {
+        return current.get();
+    }
+
+    /**
+     * Binds a trace to this thread.
+     *
+     * @return the previously bound trace, to hand back to {@link #restore(Trace)}
+     */
+    public static Trace attach(Trace trace) {
+        Trace previous = current.get();
+        current.set(trace);
+        return previous;
+    }
+
+    public static void restore(Trace previous) {
+        if(previous == null) {
+            current.remove();
+        }
+        else {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * Starts a span of the trace bound to this thread; a shared no-op span if there is none.
+     */
+    public static Span span(String name) {
+        return span(current.get(), name);
+    }
+
+    public static Span span(Trace trace, String name) {
+        return trace != null ? trace.span(name) : Span.NOOP;
+    }
+
+    /**
+     * Logs a finished trace if it is slower than {@code slowThresholdMillis} (when positive) or it falls
+     * within the sample rate.
+     */
+    public static void finish(Trace trace, int status, double sampleRate, long slowThresholdMillis) {
+        long elapsed = trace.elapsed();
+        boolean slow = slowThresholdMillis > 0 && elapsed >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+
+        if(slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            logger.info((slow ? "Slow request " : "Trace ") + trace.toLogString(status, elapsed));
+        }
+    }
+}